@@ -1,5 +1,6 @@
 module RealIPCapModel {
     requires javafx.controls;
     requires javafx.fxml;
-    exports simulator;
+    requires simulator.core;
+    exports simulator.app;
 }
\ No newline at end of file
@@ -0,0 +1,580 @@
+package simulator.app;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import simulator.Calibration;
+import simulator.ColumnarDataset;
+import simulator.DynamicProjection;
+import simulator.EnrollmentEvaluator;
+import simulator.EnrollmentResult;
+import simulator.FactorSpec;
+import simulator.HistoricalData;
+import simulator.MetricsRegistry;
+import simulator.ParameterSnapshot;
+import simulator.ScenarioExporter;
+import simulator.SimulationScheduler;
+import simulator.Simulator;
+import simulator.Sensitivity;
+import simulator.SimulatorEvents;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+    /**
+     * College enrollment gender gap simulator: sliders for the factor spec's weights and
+     * multipliers, the projected female/male shares and gap, the modeled history, and
+     * calibration, export and metrics controls. The model runs in simulator.core through a
+     * SimulationScheduler; this class only builds and updates the JavaFX scene.
+     *
+     * Run with `mvn javafx:run` from app/ after `mvn install` at the root (see README).
+     */
+
+    public class CollegeEnrollmentSimulator extends Application {
+
+        // Simulator instance (owned by the scheduler's worker thread once started)
+        private Simulator simulator;
+        private SimulationScheduler scheduler;
+        private boolean updateQueued;
+
+        // UI Components
+        private Slider[] sliders;  // indexed like the factor spec's parameter layout
+        // Latest slider values: replaced, never mutated, on every change, so any thread can read it
+        private volatile ParameterSnapshot parameters;
+        private Label femaleResultLabel;
+        private Label maleResultLabel;
+        private Label gapResultLabel;
+        private DownsampledLineChart projectionChart;
+        private int femaleLine, maleLine;
+        private DownsampledLineChart historicalChart;
+        private int observedLine, modeledLine;
+        private Slider projectionYearsSlider;
+        // Static (each year on its own) or stepped with feedback; long horizon extends the slider to 500 years
+        private ChoiceBox<String> modelChoice;
+        private CheckBox longHorizon;
+        private Label metricsOverlay;
+        private Timeline metricsRefresh;
+
+        // Modeled history (HISTORY_START up to the current year) for the current sliders;
+        // the worker evaluates it with each projection and delivers the two together
+        private static final int HISTORY_START = 1980;
+        private EnrollmentEvaluator evaluator;
+        private double[] chartYears = new double[0], chartFemale = new double[0], chartMale = new double[0];
+
+        // Gradient of the gap in the last projected year, one forward-mode pass per update
+        private Sensitivity sensitivity;
+        private final double[] sensitivityGap = new double[1];
+        private double[] sensitivityGradient;
+        private BarChart<String, Number> sensitivityChart;
+        private List<XYChart.Data<String, Number>> sensitivityBars;
+
+        @Override
+        public void start(Stage primaryStage) {
+            simulator = new Simulator();
+            loadDataset(simulator.model.historicalData);
+            scheduler = new SimulationScheduler(simulator, HISTORY_START, Platform::runLater, this::applyResults);
+            sliders = new Slider[simulator.model.spec.parameterCount()];
+            parameters = ParameterSnapshot.defaults(simulator.model.spec);
+            evaluator = new EnrollmentEvaluator(simulator.model.spec, simulator.model.historicalData);
+            sensitivity = new Sensitivity(evaluator);
+            sensitivityGradient = new double[simulator.model.spec.parameterCount()];
+
+            // Main layout
+            BorderPane root = new BorderPane();
+            root.setPadding(new Insets(20));
+            root.setStyle("-fx-background-color: #f0f4f8;");
+
+            // Header
+            VBox header = new VBox(10);
+            Label title = new Label("College Enrollment Gender Gap Simulator");
+            title.setFont(Font.font("Arial", FontWeight.BOLD, 26));
+            Label subtitle = new Label("Adjust factors to simulate their impact on college enrollment by gender (1980-2024+)");
+            subtitle.setFont(Font.font("Arial", 13));
+            header.getChildren().addAll(title, subtitle);
+            root.setTop(header);
+
+            // Scrollable center content
+            ScrollPane scrollPane = new ScrollPane();
+            scrollPane.setFitToWidth(true);
+            VBox content = new VBox(20);
+            content.setPadding(new Insets(20));
+
+            // Results display
+            content.getChildren().add(createResultsDisplay());
+
+            // Factor weights
+            content.getChildren().add(createWeightsSection());
+
+            // Factor adjustments
+            content.getChildren().add(createFactorsSection());
+
+            // Projection settings
+            content.getChildren().add(createProjectionSettings());
+
+            // Charts
+            content.getChildren().add(createProjectionChart());
+            content.getChildren().add(createHistoricalChart());
+            content.getChildren().add(createSensitivityChart());
+
+            scrollPane.setContent(content);
+            root.setCenter(scrollPane);
+
+            // Metrics overlay floats over the content; hidden (and not recording) by default
+            metricsOverlay = new Label();
+            metricsOverlay.setFont(Font.font("Monospaced", 12));
+            metricsOverlay.setStyle("-fx-background-color: rgba(15, 23, 42, 0.85); -fx-text-fill: #e2e8f0; " +
+                    "-fx-padding: 10; -fx-background-radius: 6;");
+            metricsOverlay.setMouseTransparent(true);
+            metricsOverlay.setVisible(false);
+            StackPane layers = new StackPane(root, metricsOverlay);
+            StackPane.setAlignment(metricsOverlay, Pos.TOP_RIGHT);
+            StackPane.setMargin(metricsOverlay, new Insets(20));
+            metricsRefresh = new Timeline(new KeyFrame(Duration.millis(250),
+                    e -> metricsOverlay.setText(scheduler.metrics().summary() + "\n" + scheduler.cache())));
+            metricsRefresh.setCycleCount(Animation.INDEFINITE);
+
+            // Initial simulation
+            updateSimulation();
+
+            Scene scene = new Scene(layers, 1200, 900);
+            primaryStage.setTitle("College Enrollment Gender Gap Simulator");
+            primaryStage.setScene(scene);
+            primaryStage.show();
+        }
+
+        private HBox createResultsDisplay() {
+            HBox box = new HBox(20);
+            box.setAlignment(Pos.CENTER);
+
+            VBox femaleBox = createResultCard("Female Enrollment", "#ec4899");
+            femaleResultLabel = new Label("59.4%");
+            femaleResultLabel.setFont(Font.font("Arial", FontWeight.BOLD, 28));
+            femaleResultLabel.setStyle("-fx-text-fill: #ec4899;");
+            femaleBox.getChildren().add(femaleResultLabel);
+
+            VBox maleBox = createResultCard("Male Enrollment", "#3b82f6");
+            maleResultLabel = new Label("40.6%");
+            maleResultLabel.setFont(Font.font("Arial", FontWeight.BOLD, 28));
+            maleResultLabel.setStyle("-fx-text-fill: #3b82f6;");
+            maleBox.getChildren().add(maleResultLabel);
+
+            VBox gapBox = createResultCard("Gender Gap (F-M)", "#a855f7");
+            gapResultLabel = new Label("+18.8 pts");
+            gapResultLabel.setFont(Font.font("Arial", FontWeight.BOLD, 28));
+            gapResultLabel.setStyle("-fx-text-fill: #a855f7;");
+            gapBox.getChildren().add(gapResultLabel);
+
+            box.getChildren().addAll(femaleBox, maleBox, gapBox);
+            return box;
+        }
+
+        private VBox createResultCard(String titleText, String color) {
+            VBox card = new VBox(10);
+            card.setPadding(new Insets(20));
+            card.setStyle("-fx-background-color: white; -fx-background-radius: 8; " +
+                    "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 8, 0, 0, 2);");
+            card.setAlignment(Pos.CENTER);
+            card.setPrefWidth(250);
+
+            Label title = new Label(titleText);
+            title.setFont(Font.font("Arial", 11));
+            title.setStyle("-fx-text-fill: #64748b;");
+            card.getChildren().add(title);
+            return card;
+        }
+
+        private VBox createWeightsSection() {
+            return createParameterSection("Factor Weights (Importance)", true);
+        }
+
+        private VBox createFactorsSection() {
+            return createParameterSection("Factor Adjustments (Multipliers)", false);
+        }
+
+        // One slider per spec parameter of the given kind, two per row
+        private VBox createParameterSection(String titleText, boolean weights) {
+            VBox section = createSection(titleText);
+            GridPane grid = new GridPane();
+            grid.setHgap(15);
+            grid.setVgap(12);
+            grid.setPadding(new Insets(10));
+
+            FactorSpec spec = simulator.model.spec;
+            int i = 0;
+            for (int index = 0; index < spec.parameterCount(); index++) {
+                if (spec.isWeight(index) != weights) continue;
+                Label label = new Label(spec.label(index) + ":");
+                label.setFont(Font.font("Arial", FontWeight.SEMI_BOLD, 12));
+
+                Slider slider = new Slider(spec.min(index), spec.max(index), spec.defaultValue(index));
+                slider.setPrefWidth(200);
+                int param = index;
+                slider.valueProperty().addListener((obs, old, val) -> publish(param, val.doubleValue()));
+                sliders[index] = slider;
+
+                Label valLabel = new Label(String.format("%.0f%%", slider.getValue() * 100));
+                slider.valueProperty().addListener((obs, old, val) ->
+                        valLabel.setText(String.format("%.0f%%", val.doubleValue() * 100)));
+
+                int row = i / 2;
+                int col = (i % 2) * 3;
+                grid.add(label, col, row);
+                grid.add(slider, col + 1, row);
+                grid.add(valLabel, col + 2, row);
+                i++;
+            }
+
+            section.getChildren().add(grid);
+            return section;
+        }
+
+        private VBox createProjectionSettings() {
+            VBox section = createSection("Projection Settings");
+            HBox controls = new HBox(20);
+            controls.setAlignment(Pos.CENTER_LEFT);
+            controls.setPadding(new Insets(10));
+
+            Label label = new Label("Years to Project:");
+            projectionYearsSlider = new Slider(5, 30, 10);
+            projectionYearsSlider.setShowTickLabels(true);
+            projectionYearsSlider.setMajorTickUnit(5);
+            projectionYearsSlider.setSnapToTicks(true);
+            projectionYearsSlider.setPrefWidth(300);
+            projectionYearsSlider.valueProperty().addListener((obs, old, val) -> requestUpdate());
+
+            Button resetBtn = new Button("Reset to Defaults");
+            resetBtn.setOnAction(e -> resetToDefaults());
+            resetBtn.setStyle("-fx-background-color: #e2e8f0; -fx-font-weight: bold;");
+
+            Button fitBtn = new Button("Fit to History");
+            fitBtn.setOnAction(e -> fitToHistory(fitBtn));
+            fitBtn.setStyle("-fx-background-color: #e2e8f0; -fx-font-weight: bold;");
+
+            Button exportBtn = new Button("Export...");
+            exportBtn.setOnAction(e -> exportProjection(exportBtn));
+            exportBtn.setStyle("-fx-background-color: #e2e8f0; -fx-font-weight: bold;");
+
+            ToggleButton metricsBtn = new ToggleButton("Metrics");
+            metricsBtn.setOnAction(e -> showMetrics(metricsBtn.isSelected()));
+            metricsBtn.setStyle("-fx-font-weight: bold;");
+
+            controls.getChildren().addAll(label, projectionYearsSlider, resetBtn, fitBtn, exportBtn, metricsBtn);
+
+            HBox dynamics = new HBox(20);
+            dynamics.setAlignment(Pos.CENTER_LEFT);
+            dynamics.setPadding(new Insets(0, 10, 10, 10));
+
+            Label modelLabel = new Label("Model:");
+            modelChoice = new ChoiceBox<>();
+            modelChoice.getItems().add("Static (no feedback)");
+            for (DynamicProjection.Step step : DynamicProjection.Step.values()) {
+                String name = step.name().toLowerCase();
+                modelChoice.getItems().add("Feedback, " + name + " steps");
+            }
+            modelChoice.getSelectionModel().select(0);
+            modelChoice.valueProperty().addListener((obs, old, val) -> requestUpdate());
+
+            longHorizon = new CheckBox("Long horizon (up to 500 years)");
+            longHorizon.selectedProperty().addListener((obs, old, val) -> {
+                projectionYearsSlider.setMax(val ? 500 : 30);
+                projectionYearsSlider.setMajorTickUnit(val ? 50 : 5);
+                requestUpdate();
+            });
+
+            dynamics.getChildren().addAll(modelLabel, modelChoice, longHorizon);
+            section.getChildren().addAll(controls, dynamics);
+            return section;
+        }
+
+        private VBox createProjectionChart() {
+            VBox section = createSection("Enrollment Projection");
+
+            // X axis follows the projection horizon; scroll to zoom, double-click to reset
+            NumberAxis xAxis = new NumberAxis();
+            xAxis.setLabel("Year");
+            NumberAxis yAxis = new NumberAxis(0, 100, 10);
+            yAxis.setLabel("Enrollment %");
+
+            projectionChart = new DownsampledLineChart(xAxis, yAxis);
+            projectionChart.setTitle("Future Projection Based on Current Settings");
+            projectionChart.setPrefHeight(300);
+            femaleLine = projectionChart.addSeries("Female %");
+            maleLine = projectionChart.addSeries("Male %");
+
+            section.getChildren().add(projectionChart);
+            return section;
+        }
+
+        private VBox createHistoricalChart() {
+            VBox section = createSection("Historical vs. Modeled");
+
+            NumberAxis xAxis = new NumberAxis();
+            xAxis.setLabel("Year");
+            NumberAxis yAxis = new NumberAxis();
+            yAxis.setLabel("Female share of enrollment %");
+            yAxis.setForceZeroInRange(false);
+
+            historicalChart = new DownsampledLineChart(xAxis, yAxis);
+            historicalChart.setTitle("Observed vs. Modeled Female Share (shaded: observed minus modeled)");
+            historicalChart.setPrefHeight(300);
+            observedLine = historicalChart.addSeries("Observed");
+            modeledLine = historicalChart.addSeries("Modeled");
+            historicalChart.setResidualBand(observedLine, modeledLine);
+
+            HistoricalData data = simulator.model.historicalData;
+            double[] years = data.knotYears(HistoricalData.Series.ENROLLMENT_FEMALE_SHARE);
+            double[] observed = data.knotValues(HistoricalData.Series.ENROLLMENT_FEMALE_SHARE);
+            historicalChart.setSeries(observedLine, years, observed, 0, years.length);
+
+            section.getChildren().add(historicalChart);
+            return section;
+        }
+
+        private VBox createSensitivityChart() {
+            VBox section = createSection("Sensitivity");
+
+            CategoryAxis xAxis = new CategoryAxis();
+            NumberAxis yAxis = new NumberAxis();
+            yAxis.setLabel("Gap change (pts) per unit");
+
+            // Bars are created once and their values replaced on every update
+            sensitivityChart = new BarChart<>(xAxis, yAxis);
+            sensitivityChart.setAnimated(false);
+            sensitivityChart.setLegendVisible(false);
+            sensitivityChart.setPrefHeight(300);
+            XYChart.Series<String, Number> series = new XYChart.Series<>();
+            FactorSpec spec = simulator.model.spec;
+            sensitivityBars = new ArrayList<>(spec.parameterCount());
+            for (int i = 0; i < spec.parameterCount(); i++) {
+                XYChart.Data<String, Number> bar = new XYChart.Data<>(spec.label(i), 0.0);
+                sensitivityBars.add(bar);
+                series.getData().add(bar);
+            }
+            sensitivityChart.getData().add(series);
+
+            section.getChildren().add(sensitivityChart);
+            return section;
+        }
+
+        // Bars show how far the gap in the last projected year moves per unit of each slider
+        private void updateSensitivity(ParameterSnapshot params, int year) {
+            sensitivity.evaluate(params, year, 1, sensitivityGap, sensitivityGradient);
+            sensitivityChart.setTitle(String.format("d(Gap %d) / d(parameter), gap %+.1f pts%s", year, sensitivityGap[0],
+                    selectedStep() == null ? "" : " (static model)"));
+            for (int i = 0; i < sensitivityGradient.length; i++) {
+                XYChart.Data<String, Number> bar = sensitivityBars.get(i);
+                bar.setYValue(sensitivityGradient[i]);
+                if (bar.getNode() != null) {
+                    bar.getNode().setStyle(sensitivityGradient[i] >= 0 ? "-fx-bar-fill: #ec4899;" : "-fx-bar-fill: #3b82f6;");
+                }
+            }
+        }
+
+        private VBox createSection(String titleText) {
+            VBox section = new VBox(10);
+            section.setPadding(new Insets(15));
+            section.setStyle("-fx-background-color: white; -fx-background-radius: 8; " +
+                    "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 6, 0, 0, 2);");
+
+            Label title = new Label(titleText);
+            title.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+            section.getChildren().add(title);
+            return section;
+        }
+
+        private void publish(int param, double value) {
+            parameters = parameters.with(param, value);
+            requestUpdate();
+        }
+
+        // Coalesce every slider change made during one FX event (drag, reset) into a single snapshot
+        private void requestUpdate() {
+            if (!updateQueued) {
+                updateQueued = true;
+                Platform.runLater(this::updateSimulation);
+            }
+        }
+
+        private void updateSimulation() {
+            updateQueued = false;
+            SimulatorEvents.UpdateSimulation event = new SimulatorEvents.UpdateSimulation();
+            event.begin();
+
+            // Hand the published snapshot to the worker, then take its gradient here
+            ParameterSnapshot params = parameters;
+            int years = (int) projectionYearsSlider.getValue();
+            scheduler.submit(params, years, selectedStep());
+            updateSensitivity(params, simulator.currentYear + years);
+
+            event.yearsAhead = years;
+            event.commit();
+        }
+
+        private void applyResults(SimulationScheduler.Update update) {
+            List<EnrollmentResult> results = update.results;
+            SimulatorEvents.ChartRefresh event = new SimulatorEvents.ChartRefresh();
+            event.begin();
+            MetricsRegistry metrics = scheduler.metrics();
+            long start = metrics.enabled() ? System.nanoTime() : 0;
+
+            // Update result labels
+            EnrollmentResult current = results.get(0);
+            femaleResultLabel.setText(String.format("%.1f%%", current.femaleShare));
+            maleResultLabel.setText(String.format("%.1f%%", current.maleShare));
+            gapResultLabel.setText(String.format("%+.1f pts", current.gap));
+
+            // Modeled history then the projection; the charts downsample to their width and
+            // update their points in place, so all changes land in this pulse's single layout pass
+            int h = update.backcastFemale.length, n = results.size();
+            if (chartYears.length < h + n) {
+                chartYears = new double[h + n];
+                chartFemale = new double[h + n];
+                chartMale = new double[h + n];
+            }
+            for (int i = 0; i < h; i++) chartYears[i] = update.backcastStart + i;
+            System.arraycopy(update.backcastFemale, 0, chartFemale, 0, h);
+            System.arraycopy(update.backcastMale, 0, chartMale, 0, h);
+            for (int i = 0; i < n; i++) {
+                EnrollmentResult result = results.get(i);
+                chartYears[h + i] = result.year;
+                chartFemale[h + i] = result.femaleShare;
+                chartMale[h + i] = result.maleShare;
+            }
+            projectionChart.setSeries(femaleLine, chartYears, chartFemale, h, n);
+            projectionChart.setSeries(maleLine, chartYears, chartMale, h, n);
+            historicalChart.setSeries(modeledLine, chartYears, chartFemale, 0, h + n);
+
+            if (start != 0) metrics.recordChartRefresh(System.nanoTime() - start);
+            event.points = projectionChart.displayedPoints() + historicalChart.displayedPoints();
+            event.commit();
+        }
+
+        // null for the static model
+        private DynamicProjection.Step selectedStep() {
+            int index = modelChoice.getSelectionModel().getSelectedIndex();
+            return index <= 0 ? null : DynamicProjection.Step.values()[index - 1];
+        }
+
+        private void resetToDefaults() {
+            FactorSpec spec = simulator.model.spec;
+            for (int i = 0; i < sliders.length; i++) {
+                sliders[i].setValue(spec.defaultValue(i));
+            }
+
+            projectionYearsSlider.setValue(10);
+            requestUpdate();
+        }
+
+        // Optional annual series: -Dsimulator.dataset=file.ripc [-Dsimulator.dataset.suffix=/US/all]
+        private static void loadDataset(HistoricalData data) {
+            String file = System.getProperty("simulator.dataset");
+            if (file == null) return;
+            try (ColumnarDataset dataset = ColumnarDataset.open(Path.of(file))) {
+                data.load(dataset, System.getProperty("simulator.dataset.suffix", ""));
+            } catch (IOException e) {
+                System.err.println("Could not load dataset " + file + ": " + e.getMessage());
+            }
+        }
+
+        // Calibrate weights/multipliers against the model's enrollment history (built in or
+        // from -Dsimulator.dataset) in the background, then move the sliders
+        private void fitToHistory(Button button) {
+            button.setDisable(true);
+            FactorSpec spec = simulator.model.spec;
+            HistoricalData data = simulator.model.historicalData;
+            CompletableFuture.supplyAsync(() -> Calibration.againstHistory(spec, data).fit())
+                    .whenComplete((fit, error) -> Platform.runLater(() -> {
+                        button.setDisable(false);
+                        if (error != null) {
+                            showError("Fit to History", "Could not calibrate against the history", error);
+                            return;
+                        }
+                        for (int i = 0; i < sliders.length; i++) sliders[i].setValue(fit.params[i]);
+                    }));
+        }
+
+        // Write the current scenario as CSV (or the binary columnar format for other extensions)
+        private void exportProjection(Button button) {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Export Projection");
+            chooser.setInitialFileName("projection.csv");
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                    new FileChooser.ExtensionFilter("Columnar", "*.ripx"));
+            File file = chooser.showSaveDialog(button.getScene().getWindow());
+            if (file == null) return;
+
+            // Same spec, history, start year and model (static or stepped) as the chart
+            ParameterSnapshot params = parameters;
+            int years = (int) projectionYearsSlider.getValue();
+            DynamicProjection.Step step = selectedStep();
+            Path out = file.toPath();
+            button.setDisable(true);
+            CompletableFuture.runAsync(() -> {
+                try {
+                    new ScenarioExporter(ScenarioExporter.formatFor(out), evaluator)
+                            .withStartYear(simulator.currentYear).withStep(step)
+                            .withThreads(1).withBufferBytes(1 << 16)
+                            .export(out, 1, years, (s, dst, offset) -> params.copyTo(dst, offset));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).whenComplete((ok, error) -> Platform.runLater(() -> {
+                button.setDisable(false);
+                if (error != null) showError("Export Projection", "Could not export " + out.getFileName(), error);
+            }));
+        }
+
+        // Runs on the FX thread; the cause is unwrapped from the CompletionException/UncheckedIOException
+        private void showError(String title, String header, Throwable error) {
+            Throwable cause = error;
+            while (cause.getCause() != null) cause = cause.getCause();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle(title);
+            alert.setHeaderText(header);
+            alert.setContentText(cause.getMessage() != null ? cause.getMessage() : cause.toString());
+            alert.show();
+        }
+
+        // Metrics are only recorded while the overlay is showing
+        private void showMetrics(boolean show) {
+            scheduler.metrics().setEnabled(show);
+            metricsOverlay.setVisible(show);
+            if (show) {
+                scheduler.metrics().reset();
+                metricsRefresh.play();
+            } else {
+                metricsRefresh.stop();
+            }
+        }
+
+        @Override
+        public void stop() {
+            if (metricsRefresh != null) metricsRefresh.stop();
+            if (scheduler != null) scheduler.shutdown();
+        }
+
+        public static void main(String[] args) {
+            launch(args);
+        }
+    }
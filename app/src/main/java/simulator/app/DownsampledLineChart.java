@@ -0,0 +1,323 @@
+package simulator.app;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import simulator.Lttb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line chart over full-resolution series that only puts an LTTB sample of the visible
+ * x range into the scene graph, about one point per pixel of plot width. The sample is
+ * recomputed when the plot is resized or zoomed (scroll wheel zooms about the cursor,
+ * double-click resets), so long horizons, monthly steps or many overlaid scenarios
+ * cost the same number of nodes as a short annual run.
+ *
+ * The x axis follows the data extent unless zoomed. Optionally shades the residual
+ * between an observed and a modeled series, split by sign.
+ */
+class DownsampledLineChart extends LineChart<Number, Number> {
+
+    private static final double ZOOM_STEP = 1.25;
+
+    private static final class Line {
+        final XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        double[] x = new double[0];
+        double[] y = new double[0];
+        int n;
+    }
+
+    private final NumberAxis xAxis;
+    private final NumberAxis yAxis;
+    private final List<Line> lines = new ArrayList<>();
+    private int[] kept = new int[0];
+
+    // Data extent over all series, and whether the axis is showing less than that
+    private double minX = Double.NaN, maxX = Double.NaN;
+    private boolean zoomed;
+
+    // Last resample inputs; a layout pass that changes none of them is skipped
+    private double sampledWidth = -1, sampledLower, sampledUpper;
+    private boolean dirty;
+    private boolean resamplePosted;
+
+    // Residual shading (observed - modeled): above = observed higher than the model
+    private int bandObserved = -1, bandModeled = -1;
+    private final Path bandAbove = new Path();
+    private final Path bandBelow = new Path();
+
+    DownsampledLineChart(NumberAxis xAxis, NumberAxis yAxis) {
+        super(xAxis, yAxis);
+        this.xAxis = xAxis;
+        this.yAxis = yAxis;
+        xAxis.setAutoRanging(false);
+        setCreateSymbols(false);
+        // Points are reused across updates; no per-point animation timelines
+        setAnimated(false);
+
+        bandAbove.setFill(Color.rgb(37, 99, 235, 0.18));
+        bandBelow.setFill(Color.rgb(220, 38, 38, 0.18));
+        for (Path band : List.of(bandAbove, bandBelow)) {
+            band.setStroke(null);
+            band.setManaged(false);
+            band.setMouseTransparent(true);
+        }
+        getPlotChildren().addAll(0, List.of(bandAbove, bandBelow));
+
+        xAxis.widthProperty().addListener((obs, old, val) -> requestResample());
+        xAxis.lowerBoundProperty().addListener((obs, old, val) -> requestResample());
+        xAxis.upperBoundProperty().addListener((obs, old, val) -> requestResample());
+        setOnScroll(this::zoom);
+        setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) resetZoom();
+        });
+    }
+
+    // Adds an empty series and returns its index for setSeries
+    int addSeries(String name) {
+        Line line = new Line();
+        line.series.setName(name);
+        lines.add(line);
+        getData().add(line.series);
+        return lines.size() - 1;
+    }
+
+    // Replaces a series with points [offset, offset + n) of (x, y), x ascending.
+    // The values are copied, so callers can reuse their arrays.
+    void setSeries(int index, double[] x, double[] y, int offset, int n) {
+        Line line = lines.get(index);
+        if (line.x.length < n) {
+            line.x = new double[n];
+            line.y = new double[n];
+        }
+        System.arraycopy(x, offset, line.x, 0, n);
+        System.arraycopy(y, offset, line.y, 0, n);
+        line.n = n;
+        dirty = true;
+
+        updateExtent();
+        double lower = Math.max(minX, xAxis.getLowerBound()), upper = Math.min(maxX, xAxis.getUpperBound());
+        if (!zoomed || lower >= upper) {
+            zoomed = false;
+            fitAxis(minX, maxX);
+        } else if (lower != xAxis.getLowerBound() || upper != xAxis.getUpperBound()) {
+            fitAxis(lower, upper);
+        }
+        resample();
+    }
+
+    void setResidualBand(int observed, int modeled) {
+        bandObserved = observed;
+        bandModeled = modeled;
+        requestLayout();
+    }
+
+    // Points currently in the scene graph, over all series
+    int displayedPoints() {
+        int total = 0;
+        for (Line line : lines) total += line.series.getData().size();
+        return total;
+    }
+
+    // ============================================
+    // DOWNSAMPLING
+    // ============================================
+
+    // Width and bound changes arrive mid-layout; resample once afterwards
+    private void requestResample() {
+        if (!resamplePosted) {
+            resamplePosted = true;
+            Platform.runLater(() -> {
+                resamplePosted = false;
+                resample();
+            });
+        }
+    }
+
+    private void resample() {
+        double width = xAxis.getWidth() > 0 ? xAxis.getWidth() : getPrefWidth() > 0 ? getPrefWidth() : 800;
+        double lower = xAxis.getLowerBound(), upper = xAxis.getUpperBound();
+        if (!dirty && width == sampledWidth && lower == sampledLower && upper == sampledUpper) return;
+        dirty = false;
+        sampledWidth = width;
+        sampledLower = lower;
+        sampledUpper = upper;
+
+        int threshold = Math.max(3, (int) Math.ceil(width));
+        for (Line line : lines) {
+            // Keep one point either side of the window so the line runs to the plot edges
+            int from = Math.max(0, firstAtOrAbove(line, lower) - 1);
+            int to = Math.min(line.n, firstAbove(line, upper) + 1);
+            if (kept.length < Math.min(threshold, to - from)) kept = new int[Math.min(threshold, to - from)];
+            int m = Lttb.downsample(line.x, line.y, from, to, threshold, kept);
+            apply(line, m);
+        }
+    }
+
+    // Mutates existing points and only adds/removes the tail when the count changes
+    private void apply(Line line, int m) {
+        ObservableList<XYChart.Data<Number, Number>> data = line.series.getData();
+        if (data.size() > m) {
+            data.remove(m, data.size());
+        }
+
+        int reuse = data.size();
+        for (int i = 0; i < reuse; i++) {
+            XYChart.Data<Number, Number> point = data.get(i);
+            double x = line.x[kept[i]], y = line.y[kept[i]];
+            if (point.getXValue().doubleValue() != x) point.setXValue(x);
+            if (point.getYValue().doubleValue() != y) point.setYValue(y);
+        }
+
+        if (reuse < m) {
+            List<XYChart.Data<Number, Number>> added = new ArrayList<>(m - reuse);
+            for (int i = reuse; i < m; i++) {
+                added.add(new XYChart.Data<>(line.x[kept[i]], line.y[kept[i]]));
+            }
+            data.addAll(added);
+        }
+    }
+
+    private static int firstAtOrAbove(Line line, double x) {
+        int i = Arrays.binarySearch(line.x, 0, line.n, x);
+        if (i < 0) return -i - 1;
+        while (i > 0 && line.x[i - 1] == x) i--;
+        return i;
+    }
+
+    private static int firstAbove(Line line, double x) {
+        int i = Arrays.binarySearch(line.x, 0, line.n, x);
+        if (i < 0) return -i - 1;
+        while (i < line.n && line.x[i] == x) i++;
+        return i;
+    }
+
+    // ============================================
+    // AXIS AND ZOOM
+    // ============================================
+
+    private void updateExtent() {
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        for (Line line : lines) {
+            if (line.n == 0) continue;
+            minX = Math.min(minX, line.x[0]);
+            maxX = Math.max(maxX, line.x[line.n - 1]);
+        }
+        if (minX > maxX) {
+            minX = 0;
+            maxX = 1;
+        } else if (minX == maxX) {
+            minX -= 0.5;
+            maxX += 0.5;
+        }
+    }
+
+    private void fitAxis(double lower, double upper) {
+        xAxis.setLowerBound(lower);
+        xAxis.setUpperBound(upper);
+        xAxis.setTickUnit(tickUnit(upper - lower));
+    }
+
+    // About ten ticks at 1, 2 or 5 times a power of ten
+    private static double tickUnit(double range) {
+        double raw = range / 10;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double norm = raw / magnitude;
+        double step = norm < 1.5 ? 1 : norm < 3 ? 2 : norm < 7 ? 5 : 10;
+        return step * magnitude;
+    }
+
+    private void zoom(ScrollEvent e) {
+        if (e.getDeltaY() == 0 || Double.isNaN(minX)) return;
+        double lower = xAxis.getLowerBound(), upper = xAxis.getUpperBound();
+        double pivot = xAxis.getValueForDisplay(xAxis.sceneToLocal(e.getSceneX(), e.getSceneY()).getX()).doubleValue();
+        pivot = Math.max(lower, Math.min(upper, pivot));
+        double factor = e.getDeltaY() > 0 ? 1 / ZOOM_STEP : ZOOM_STEP;
+        double newLower = Math.max(minX, pivot - (pivot - lower) * factor);
+        double newUpper = Math.min(maxX, pivot + (upper - pivot) * factor);
+        if (newUpper - newLower < (maxX - minX) * 1e-4) return;
+        zoomed = newLower > minX || newUpper < maxX;
+        fitAxis(newLower, newUpper);
+        e.consume();
+    }
+
+    private void resetZoom() {
+        zoomed = false;
+        fitAxis(minX, maxX);
+    }
+
+    // ============================================
+    // RESIDUAL SHADING
+    // ============================================
+
+    @Override
+    protected void layoutPlotChildren() {
+        super.layoutPlotChildren();
+        List<PathElement> above = new ArrayList<>(), below = new ArrayList<>();
+        if (bandObserved >= 0 && bandModeled >= 0) {
+            shadeResidual(lines.get(bandObserved), lines.get(bandModeled), above, below);
+        }
+        bandAbove.getElements().setAll(above);
+        bandBelow.getElements().setAll(below);
+    }
+
+    // Walks the displayed model points over the range both series cover; segments where the
+    // residual changes sign are split at the crossing so each piece lands in one band
+    private void shadeResidual(Line observed, Line modeled, List<PathElement> above, List<PathElement> below) {
+        if (observed.n < 2 || modeled.n < 2) return;
+        double lo = Math.max(Math.max(observed.x[0], modeled.x[0]), xAxis.getLowerBound());
+        double hi = Math.min(Math.min(observed.x[observed.n - 1], modeled.x[modeled.n - 1]), xAxis.getUpperBound());
+        if (lo >= hi) return;
+
+        ObservableList<XYChart.Data<Number, Number>> shown = modeled.series.getData();
+        double x0 = lo;
+        for (int i = 0; i <= shown.size(); i++) {
+            double x1 = i < shown.size() ? Math.min(hi, shown.get(i).getXValue().doubleValue()) : hi;
+            if (x1 <= x0) continue;
+            double m0 = interpolate(modeled, x0), m1 = interpolate(modeled, x1);
+            double r0 = interpolate(observed, x0) - m0, r1 = interpolate(observed, x1) - m1;
+            if (r0 * r1 >= 0) {
+                quad(r0 + r1 >= 0 ? above : below, x0, m0, m0 + r0, x1, m1, m1 + r1);
+            } else {
+                double t = r0 / (r0 - r1);
+                double xc = x0 + t * (x1 - x0), mc = m0 + t * (m1 - m0);
+                quad(r0 > 0 ? above : below, x0, m0, m0 + r0, xc, mc, mc);
+                quad(r1 > 0 ? above : below, xc, mc, mc, x1, m1, m1 + r1);
+            }
+            x0 = x1;
+            if (x0 >= hi) break;
+        }
+    }
+
+    private void quad(List<PathElement> band, double x0, double ya0, double yb0, double x1, double ya1, double yb1) {
+        double px0 = xAxis.getDisplayPosition(x0), px1 = xAxis.getDisplayPosition(x1);
+        band.add(new MoveTo(px0, yAxis.getDisplayPosition(ya0)));
+        band.add(new LineTo(px1, yAxis.getDisplayPosition(ya1)));
+        band.add(new LineTo(px1, yAxis.getDisplayPosition(yb1)));
+        band.add(new LineTo(px0, yAxis.getDisplayPosition(yb0)));
+        band.add(new ClosePath());
+    }
+
+    // Piecewise-linear value of a full-resolution series, held flat past its ends
+    private static double interpolate(Line line, double x) {
+        int i = firstAtOrAbove(line, x);
+        if (i == 0) return line.y[0];
+        if (i >= line.n) return line.y[line.n - 1];
+        double xa = line.x[i - 1], xb = line.x[i];
+        return xb == xa ? line.y[i] : line.y[i - 1] + (x - xa) / (xb - xa) * (line.y[i] - line.y[i - 1]);
+    }
+}
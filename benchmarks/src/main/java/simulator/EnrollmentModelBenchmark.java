@@ -0,0 +1,74 @@
+package simulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One scalar year vs. the batch API (per call: scenarios x years) vs. one stateless snapshot projection
+// vs. the same projection with its full parameter gradient (forward mode)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnrollmentModelBenchmark {
+
+    @Param({"2030"})
+    int year;
+
+    @Param({"1024"})
+    int scenarios;
+
+    @Param({"31"})
+    int years;
+
+    EnrollmentModel model;
+    EnrollmentEvaluator evaluator;
+    ParameterSnapshot snapshot;
+    Sensitivity sensitivity;
+    double[] params, female, male, gap, gradient;
+
+    @Setup
+    public void setup() {
+        model = new EnrollmentModel();
+        evaluator = new EnrollmentEvaluator();
+        snapshot = ParameterSnapshot.defaults(evaluator.spec());
+        sensitivity = new Sensitivity(evaluator);
+        int stride = evaluator.spec().parameterCount();
+        int jobs = Parameter.NON_COLLEGE_MALE_JOBS.index(evaluator.spec());
+        gradient = new double[years * stride];
+        params = new double[scenarios * stride];
+        double[] defaults = evaluator.spec().defaults();
+        for (int s = 0; s < scenarios; s++) {
+            System.arraycopy(defaults, 0, params, s * stride, stride);
+            params[s * stride + jobs] = 0.5 + s / (double) scenarios;
+        }
+        female = new double[scenarios * years];
+        male = new double[scenarios * years];
+        gap = new double[scenarios * years];
+    }
+
+    @Benchmark
+    public EnrollmentResult calculateEnrollment() {
+        return model.calculateEnrollment(year);
+    }
+
+    @Benchmark
+    public double[] calculateBatch() {
+        model.calculateBatch(params, scenarios, 2024, years, female, male, gap);
+        return gap;
+    }
+
+    @Benchmark
+    public double[] evaluateSnapshot() {
+        evaluator.project(snapshot, 2024, years, female, male, gap);
+        return gap;
+    }
+
+    @Benchmark
+    public double[] evaluateGradient() {
+        sensitivity.evaluate(snapshot, 2024, years, gap, gradient);
+        return gradient;
+    }
+}
@@ -0,0 +1,40 @@
+package simulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Each spec factor's effect on its own
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FactorBenchmark {
+
+    @Param({"hsPerformance", "wagePremium", "fieldJobAvailability", "culturalPolitical", "nonCollegeMaleJobs"})
+    String factor;
+
+    @Param({"2030"})
+    int year;
+
+    HistoricalData data;
+    FactorSpec spec;
+    double[] params;
+    int index;
+
+    @Setup
+    public void setup() {
+        EnrollmentModel model = new EnrollmentModel();
+        data = model.historicalData;
+        spec = model.spec;
+        params = model.params;
+        index = spec.indexOfFactor(factor);
+    }
+
+    @Benchmark
+    public double calculateEffect() {
+        return spec.effect(index, params, data, year);
+    }
+}
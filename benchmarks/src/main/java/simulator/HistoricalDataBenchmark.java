@@ -0,0 +1,35 @@
+package simulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// String-keyed interpolate() vs. the precompiled series handle lookup
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistoricalDataBenchmark {
+
+    @Param({"1990", "2024", "2054"})
+    int year;
+
+    HistoricalData data;
+
+    @Setup
+    public void setup() {
+        data = new HistoricalData();
+    }
+
+    @Benchmark
+    public double interpolate() {
+        return data.interpolate("wagePremium", "female", year);
+    }
+
+    @Benchmark
+    public double seriesHandle() {
+        return data.value(HistoricalData.Series.WAGE_PREMIUM_FEMALE, year);
+    }
+}
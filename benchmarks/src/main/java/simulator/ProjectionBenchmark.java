@@ -0,0 +1,45 @@
+package simulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Simulator.runProjection at the slider minimum/maximum and a long horizon, and the same
+// horizons stepped monthly with feedback (DynamicProjection, one scenario)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectionBenchmark {
+
+    @Param({"5", "30", "500"})
+    int horizon;
+
+    Simulator simulator;
+    DynamicProjection dynamic;
+    double[] params, female, male, gap;
+
+    @Setup
+    public void setup() {
+        simulator = new Simulator();
+        dynamic = new DynamicProjection(new EnrollmentEvaluator()).withStep(DynamicProjection.Step.MONTHLY);
+        params = simulator.model.spec.defaults();
+        female = new double[horizon + 1];
+        male = new double[horizon + 1];
+        gap = new double[horizon + 1];
+    }
+
+    @Benchmark
+    public List<EnrollmentResult> runProjection() {
+        return simulator.runProjection(horizon);
+    }
+
+    @Benchmark
+    public double[] runDynamicMonthly() {
+        dynamic.run(params, 1, simulator.currentYear, horizon, female, male, gap);
+        return gap;
+    }
+}
@@ -0,0 +1,46 @@
+package simulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Headless updateSimulation(): push a slider snapshot into the model and re-project
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UpdatePathBenchmark {
+
+    @Param({"10", "30"})
+    int horizon;
+
+    Simulator simulator;
+    IncrementalProjection incremental;
+    double[] params;
+    int wagePremium;
+    int tick;
+
+    @Setup
+    public void setup() {
+        simulator = new Simulator();
+        incremental = new IncrementalProjection(new Simulator().model, simulator.currentYear);
+        params = simulator.model.spec.defaults();
+        wagePremium = Parameter.WAGE_PREMIUM_WEIGHT.index(simulator.model.spec);
+    }
+
+    @Benchmark
+    public List<EnrollmentResult> pushParameters() {
+        // Jitter one slider like a drag would
+        params[wagePremium] = 0.20 + (tick++ & 15) * 0.001;
+        return simulator.runProjection(params, horizon);
+    }
+
+    @Benchmark
+    public List<EnrollmentResult> pushParametersIncremental() {
+        params[wagePremium] = 0.20 + (tick++ & 15) * 0.001;
+        return incremental.project(params, horizon);
+    }
+}
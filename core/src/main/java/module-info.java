@@ -0,0 +1,6 @@
+module simulator.core {
+    requires jdk.httpserver;
+    requires jdk.jfr;
+    requires jdk.management;
+    exports simulator;
+}
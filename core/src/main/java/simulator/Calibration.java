@@ -0,0 +1,442 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Fits the weights and multipliers to an observed female enrollment-share series by
+ * minimizing the squared error (plus a small pull towards the defaults, since several
+ * weight/multiplier pairs only enter the model as a product).
+ *
+ * Uses bounded Nelder-Mead from several starting points run in parallel; the objective
+ * is memoized because clamping to the slider ranges makes the simplex revisit points.
+ * Optionally (withRefinementSteps), each start's simplex result is then polished by a
+ * bounded Levenberg-Marquardt step sequence on the exact gradient and Jacobian
+ * (forward-mode, see Sensitivity), which settles the flat, nearly degenerate directions
+ * the simplex only creeps along. Off by default, so fits stay derivative-free.
+ */
+public class Calibration {
+
+    public static class Fit {
+        public final double[] params;
+        final double sse;
+        final double[] years, observed, modeled, residuals;  // residual = observed - modeled
+        final long evaluations;
+
+        Fit(double[] params, double sse, double[] years, double[] observed, double[] modeled, long evaluations) {
+            this.params = params;
+            this.sse = sse;
+            this.years = years;
+            this.observed = observed;
+            this.modeled = modeled;
+            this.residuals = new double[years.length];
+            for (int i = 0; i < years.length; i++) residuals[i] = observed[i] - modeled[i];
+            this.evaluations = evaluations;
+        }
+
+        double rmse() {
+            double sum = 0;
+            for (double r : residuals) sum += r * r;
+            return Math.sqrt(sum / residuals.length);
+        }
+    }
+
+    // Stateless, so the parallel starts share it; each objective call projects the span
+    // covering every observed year in one batch
+    private final EnrollmentEvaluator evaluator;
+    private final FactorSpec spec;
+
+    private final int[] years;
+    private final double[] observed;
+    private final int firstYear, span;
+    private double regularization = 1e-3;
+    private int starts = 8;
+    private int maxEvaluations = 3000;  // per start
+    private int refinementSteps;  // per start, after Nelder-Mead; 0 = none
+    private double tolerance = 1e-10;
+    private long seed = 1980;
+
+    private final Map<Key, Double> memo = new ConcurrentHashMap<>();
+    private final AtomicLong evaluations = new AtomicLong();
+
+    Calibration(EnrollmentEvaluator evaluator, int[] years, double[] observed) {
+        if (years.length != observed.length || years.length == 0) {
+            throw new IllegalArgumentException("Need matching, non-empty years and observations");
+        }
+        this.evaluator = evaluator;
+        this.spec = evaluator.spec();
+        this.years = years.clone();
+        this.observed = observed.clone();
+        int lo = years[0], hi = years[0];
+        for (int y : years) {
+            lo = Math.min(lo, y);
+            hi = Math.max(hi, y);
+        }
+        this.firstYear = lo;
+        this.span = hi - lo + 1;
+    }
+
+    // Calibrate the built-in spec against the built-in observed record (1980-2024)
+    public static Calibration againstHistory() {
+        return againstHistory(FactorSpec.builtIn(), new HistoricalData());
+    }
+
+    // Calibrate spec against data's enrollment share series, projecting from the same data
+    // (e.g. a model whose HistoricalData was loaded from a dataset)
+    public static Calibration againstHistory(FactorSpec spec, HistoricalData data) {
+        double[] knotYears = data.knotYears(HistoricalData.Series.ENROLLMENT_FEMALE_SHARE);
+        int[] years = new int[knotYears.length];
+        for (int i = 0; i < years.length; i++) years[i] = (int) knotYears[i];
+        return new Calibration(new EnrollmentEvaluator(spec, data), years,
+                data.knotValues(HistoricalData.Series.ENROLLMENT_FEMALE_SHARE));
+    }
+
+    Calibration withRegularization(double lambda) {
+        this.regularization = lambda;
+        return this;
+    }
+
+    Calibration withStarts(int starts, long seed) {
+        this.starts = Math.max(1, starts);
+        this.seed = seed;
+        return this;
+    }
+
+    Calibration withMaxEvaluations(int maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+        return this;
+    }
+
+    // 0 (the default) leaves the Nelder-Mead result as is; ~50 is plenty
+    Calibration withRefinementSteps(int steps) {
+        this.refinementSteps = Math.max(0, steps);
+        return this;
+    }
+
+    public Fit fit() {
+        memo.clear();
+        evaluations.set(0);
+
+        // Start 0 is the shipped defaults, the rest are spread over the box
+        SplittableRandom rng = new SplittableRandom(seed);
+        double[][] startPoints = new double[starts][];
+        startPoints[0] = spec.defaults();
+        for (int s = 1; s < starts; s++) {
+            double[] p = new double[spec.parameterCount()];
+            for (int i = 0; i < p.length; i++) {
+                p[i] = spec.min(i) + (spec.max(i) - spec.min(i)) * rng.nextDouble();
+            }
+            startPoints[s] = p;
+        }
+
+        double[][] best = new double[starts][];
+        IntStream.range(0, starts).parallel().forEach(s -> {
+            double[] simplex = nelderMead(startPoints[s]);
+            best[s] = refinementSteps > 0 ? refine(simplex, new Gradient()) : simplex;
+        });
+
+        double[] winner = best[0];
+        for (int s = 1; s < starts; s++) {
+            if (objective(best[s]) < objective(winner)) winner = best[s];
+        }
+
+        double[] modeled = modeledShares(winner);
+        double[] yearsOut = new double[years.length];
+        double sse = 0;
+        for (int i = 0; i < years.length; i++) {
+            yearsOut[i] = years[i];
+            sse += (observed[i] - modeled[i]) * (observed[i] - modeled[i]);
+        }
+        return new Fit(winner, sse, yearsOut, observed.clone(), modeled, evaluations.get());
+    }
+
+    // Sum of squared residuals + regularization, memoized on the (clamped) parameter vector
+    double objective(double[] params) {
+        return memo.computeIfAbsent(new Key(params), k -> {
+            evaluations.incrementAndGet();
+            double[] modeled = modeledShares(k.values);
+            double sse = 0;
+            for (int i = 0; i < years.length; i++) {
+                double r = observed[i] - modeled[i];
+                sse += r * r;
+            }
+            double penalty = 0;
+            for (int j = 0; j < k.values.length; j++) {
+                double z = (k.values[j] - spec.defaultValue(j)) / (spec.max(j) - spec.min(j));
+                penalty += z * z;
+            }
+            return sse + regularization * penalty;
+        });
+    }
+
+    // Scratch for objective(params, grad): the Sensitivity and its outputs, reused by
+    // every gradient evaluation of one caller (a start's refinement), never shared between threads
+    private final class Gradient {
+        final Sensitivity sensitivity = new Sensitivity(evaluator);
+        final double[] female = new double[span];
+        final double[] dFemale = new double[span * spec.parameterCount()];
+    }
+
+    // Objective (without memoization) and its gradient in grad, from one forward-mode pass;
+    // at a fit, components that stay large belong to parameters held at their range bounds.
+    // For one-off calls; repeated callers keep a Gradient
+    double objective(double[] params, double[] grad) {
+        return objective(params, grad, new Gradient());
+    }
+
+    private double objective(double[] params, double[] grad, Gradient scratch) {
+        int n = spec.parameterCount();
+        double[] female = scratch.female, dFemale = scratch.dFemale;
+        scratch.sensitivity.evaluate(params, 0, firstYear, span, female, null, dFemale, null);
+        evaluations.incrementAndGet();
+        Arrays.fill(grad, 0);
+        double sse = 0;
+        for (int i = 0; i < years.length; i++) {
+            int y = years[i] - firstYear;
+            double r = observed[i] - female[y];
+            sse += r * r;
+            for (int j = 0; j < n; j++) grad[j] -= 2 * r * dFemale[y * n + j];
+        }
+        double penalty = 0;
+        for (int j = 0; j < n; j++) {
+            double range = spec.max(j) - spec.min(j);
+            double z = (params[j] - spec.defaultValue(j)) / range;
+            penalty += z * z;
+            grad[j] += regularization * 2 * z / range;
+        }
+        return sse + regularization * penalty;
+    }
+
+    // Modeled female share at each observed year
+    private double[] modeledShares(double[] params) {
+        double[] female = new double[span], male = new double[span], gap = new double[span];
+        evaluator.evaluateBatch(params, 1, firstYear, span, female, male, gap);
+        double[] out = new double[years.length];
+        for (int i = 0; i < years.length; i++) out[i] = female[years[i] - firstYear];
+        return out;
+    }
+
+    private void clamp(double[] p) {
+        for (int i = 0; i < p.length; i++) {
+            p[i] = Math.max(spec.min(i), Math.min(spec.max(i), p[i]));
+        }
+    }
+
+    // Bounded Levenberg-Marquardt from start: the objective is a sum of squares, so the
+    // forward-mode Jacobian of the modeled shares gives the Gauss-Newton Hessian for free.
+    // Parameters held at a bound by their gradient are frozen for the step, the step is
+    // clamped to the box, and mu trades it between Gauss-Newton and gradient descent.
+    private double[] refine(double[] start, Gradient scratch) {
+        int n = spec.parameterCount();
+        double[] x = start.clone(), trial = new double[n];
+        double[] grad = new double[n], trialGrad = new double[n];
+        double[] hessian = new double[n * n], system = new double[n * n], delta = new double[n];
+        double f = objective(x, grad, scratch);
+        gaussNewton(scratch, hessian);
+        double mu = 1e-3;
+        for (int step = 0; step < refinementSteps && mu < 1e12; step++) {
+            for (int j = 0; j < n; j++) {
+                boolean held = (x[j] <= spec.min(j) && grad[j] > 0) || (x[j] >= spec.max(j) && grad[j] < 0);
+                for (int k = 0; k < n; k++) system[j * n + k] = held ? 0 : hessian[j * n + k];
+                if (held) {
+                    for (int k = 0; k < n; k++) system[k * n + j] = 0;
+                }
+                system[j * n + j] = held ? 1 : hessian[j * n + j] * (1 + mu);
+                delta[j] = held ? 0 : -grad[j];
+            }
+            solve(system, delta, n);
+            boolean moved = false;
+            for (int j = 0; j < n; j++) {
+                trial[j] = Math.max(spec.min(j), Math.min(spec.max(j), x[j] + delta[j]));
+                moved |= trial[j] != x[j];
+            }
+            if (!moved) break;
+
+            double ft = objective(trial, trialGrad, scratch);
+            if (ft < f) {
+                System.arraycopy(trial, 0, x, 0, n);
+                System.arraycopy(trialGrad, 0, grad, 0, n);
+                boolean converged = f - ft <= tolerance * (Math.abs(ft) + 1e-12);
+                f = ft;
+                if (converged) break;
+                gaussNewton(scratch, hessian);  // scratch holds the accepted point's Jacobian
+                mu = Math.max(mu / 3, 1e-12);
+            } else {
+                mu *= 4;
+            }
+        }
+        return x;
+    }
+
+    // 2 J^T J of the residuals plus the regularization's (constant) Hessian, from the
+    // Jacobian the last objective(params, grad, scratch) call left in scratch
+    private void gaussNewton(Gradient scratch, double[] hessian) {
+        int n = spec.parameterCount();
+        double[] dFemale = scratch.dFemale;
+        Arrays.fill(hessian, 0);
+        for (int year : years) {
+            int row = (year - firstYear) * n;
+            for (int j = 0; j < n; j++) {
+                double dj = dFemale[row + j];
+                for (int k = 0; k < n; k++) hessian[j * n + k] += 2 * dj * dFemale[row + k];
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            double range = spec.max(j) - spec.min(j);
+            hessian[j * (n + 1)] += regularization * 2 / (range * range);
+        }
+    }
+
+    // Solves a x = b in place (x in b) by Gaussian elimination with partial pivoting; a is overwritten
+    private static void solve(double[] a, double[] b, int n) {
+        for (int c = 0; c < n; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < n; r++) {
+                if (Math.abs(a[r * n + c]) > Math.abs(a[pivot * n + c])) pivot = r;
+            }
+            if (pivot != c) {
+                for (int k = 0; k < n; k++) {
+                    double tmp = a[c * n + k];
+                    a[c * n + k] = a[pivot * n + k];
+                    a[pivot * n + k] = tmp;
+                }
+                double tmp = b[c];
+                b[c] = b[pivot];
+                b[pivot] = tmp;
+            }
+            for (int r = c + 1; r < n; r++) {
+                double factor = a[r * n + c] / a[c * n + c];
+                if (factor == 0) continue;
+                for (int k = c; k < n; k++) a[r * n + k] -= factor * a[c * n + k];
+                b[r] -= factor * b[c];
+            }
+        }
+        for (int r = n - 1; r >= 0; r--) {
+            double sum = b[r];
+            for (int k = r + 1; k < n; k++) sum -= a[r * n + k] * b[k];
+            b[r] = sum / a[r * n + r];
+        }
+    }
+
+    private double[] nelderMead(double[] start) {
+        int n = spec.parameterCount();
+        double[][] simplex = new double[n + 1][];
+        double[] f = new double[n + 1];
+        simplex[0] = start.clone();
+        for (int i = 0; i < n; i++) {
+            double[] v = start.clone();
+            double step = 0.1 * (spec.max(i) - spec.min(i));
+            v[i] = v[i] + step <= spec.max(i) ? v[i] + step : v[i] - step;
+            simplex[i + 1] = v;
+        }
+        IntStream.rangeClosed(0, n).parallel().forEach(i -> f[i] = objective(simplex[i]));
+
+        double[] centroid = new double[n];
+        for (int used = n + 1; used < maxEvaluations; ) {
+            sort(simplex, f);
+            if (Math.abs(f[n] - f[0]) <= tolerance * (Math.abs(f[0]) + 1e-12)) break;
+
+            Arrays.fill(centroid, 0);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) centroid[j] += simplex[i][j] / n;
+            }
+
+            double[] reflected = along(centroid, simplex[n], -1.0);
+            double fr = objective(reflected);
+            used++;
+            if (fr < f[0]) {
+                double[] expanded = along(centroid, simplex[n], -2.0);
+                double fe = objective(expanded);
+                used++;
+                if (fe < fr) { simplex[n] = expanded; f[n] = fe; }
+                else { simplex[n] = reflected; f[n] = fr; }
+            } else if (fr < f[n - 1]) {
+                simplex[n] = reflected; f[n] = fr;
+            } else {
+                boolean outside = fr < f[n];
+                double[] contracted = along(centroid, outside ? reflected : simplex[n], 0.5);
+                double fc = objective(contracted);
+                used++;
+                if (fc < Math.min(fr, f[n])) {
+                    simplex[n] = contracted; f[n] = fc;
+                } else {
+                    // Shrink towards the best vertex; the n new vertices are independent
+                    for (int i = 1; i <= n; i++) simplex[i] = along(simplex[0], simplex[i], 0.5);
+                    IntStream.rangeClosed(1, n).parallel().forEach(i -> f[i] = objective(simplex[i]));
+                    used += n;
+                }
+            }
+        }
+        sort(simplex, f);
+        return simplex[0];
+    }
+
+    // from + t * (to - from), clamped to the slider ranges
+    private double[] along(double[] from, double[] to, double t) {
+        double[] out = new double[from.length];
+        for (int j = 0; j < out.length; j++) out[j] = from[j] + t * (to[j] - from[j]);
+        clamp(out);
+        return out;
+    }
+
+    private static void sort(double[][] simplex, double[] f) {
+        for (int i = 1; i < f.length; i++) {
+            double fi = f[i];
+            double[] vi = simplex[i];
+            int j = i - 1;
+            while (j >= 0 && f[j] > fi) {
+                f[j + 1] = f[j];
+                simplex[j + 1] = simplex[j];
+                j--;
+            }
+            f[j + 1] = fi;
+            simplex[j + 1] = vi;
+        }
+    }
+
+    private static final class Key {
+        final double[] values;
+        final int hash;
+
+        Key(double[] values) {
+            this.values = values.clone();
+            this.hash = Arrays.hashCode(this.values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(values, ((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // java simulator.Calibration [--refine]
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        Calibration calibration = againstHistory();
+        if (Arrays.asList(args).contains("--refine")) calibration.withRefinementSteps(50);
+        Fit fit = calibration.fit();
+        long ms = (System.nanoTime() - start) / 1_000_000;
+
+        FactorSpec spec = calibration.spec;
+        double[] gradient = new double[spec.parameterCount()];
+        calibration.objective(fit.params, gradient);
+        System.out.println("parameter              value    d(objective)");
+        for (int i = 0; i < gradient.length; i++) {
+            System.out.printf("%-22s %.4f  %+.2e%n", spec.key(i), fit.params[i], gradient[i]);
+        }
+        System.out.println("year,observed,modeled,residual");
+        for (int i = 0; i < fit.years.length; i++) {
+            System.out.printf("%d,%.2f,%.2f,%+.2f%n", (int) fit.years[i], fit.observed[i], fit.modeled[i], fit.residuals[i]);
+        }
+        System.err.printf("SSE %.4f, RMSE %.3f pts, %d evaluations in %d ms%n", fit.sse, fit.rmse(), fit.evaluations, ms);
+    }
+}
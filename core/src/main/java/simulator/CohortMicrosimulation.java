@@ -0,0 +1,195 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Agent-based alternative to the closed-form projection: a population of households
+ * each sends one high-school graduate a year, who decides whether to enroll.
+ *
+ * Households differ in how strongly each factor of the spec reaches them: every household
+ * carries an exposure per factor, drawn once in [0.5, 1.5] (mean 1) and kept for the whole
+ * run. A graduate's own gap is the model's gap with each factor effect scaled by the
+ * household's exposure, turned into a share s_i the way the model does, and into a
+ * gender-specific probability around a base enrollment rate r: p_female = 2 r s_i and
+ * p_male = 2 r (1 - s_i). Households also carry their last graduate's decision forward:
+ * a household whose last graduate enrolled sends the next one with probability scaled by
+ * 1 + k (1 - r), one whose graduate did not by 1 - k r (k = family effect), which averages
+ * out to 1 when a share r of households enrolled. Exposures averaging 1 and the family
+ * scaling averaging 1 keep the expected female share close to the aggregate model's;
+ * the spread and the year-to-year persistence are what the agents add. Results come back
+ * as EnrollmentResult and can be compared row by row with Simulator.runProjection.
+ *
+ * Agents live in primitive arrays (exposures, enrolled flag) that are reused across
+ * years; a graduate's sex is drawn fresh each year and only counted. The population is split into fixed-size chunks, each with its own RNG stream
+ * derived from (seed, year, chunk), and per-chunk counts are summed in chunk order, so
+ * results do not depend on the number of threads.
+ */
+class CohortMicrosimulation {
+
+    private static final int CHUNK = 1 << 16;
+    // Share of new high-school graduates who enroll right away (roughly the recent US rate)
+    static final double DEFAULT_ENROLLMENT_RATE = 0.62;
+    // How much a household's last decision moves the next one (0 = none)
+    static final double DEFAULT_FAMILY_EFFECT = 0.3;
+    // Exposure codes: exposure = code / EXPOSURE_UNIT, codes in [EXPOSURE_UNIT / 2, 3 EXPOSURE_UNIT / 2]
+    private static final int EXPOSURE_UNIT = 128;
+
+    private final FactorSpec spec;
+    private final int agents;
+    private final int factors;
+    private final byte[] exposure;  // [agent * factors + factor], see EXPOSURE_UNIT
+    private final byte[] enrolled;  // decision in the most recent simulated year
+    private final long seed;
+    private double enrollmentRate = DEFAULT_ENROLLMENT_RATE;
+    private double familyEffect = DEFAULT_FAMILY_EFFECT;
+
+    CohortMicrosimulation(int agents, long seed) {
+        this(FactorSpec.builtIn(), agents, seed);
+    }
+
+    CohortMicrosimulation(FactorSpec spec, int agents, long seed) {
+        this.spec = spec;
+        this.agents = agents;
+        this.factors = spec.factorCount();
+        this.exposure = new byte[agents * factors];
+        this.enrolled = new byte[agents];
+        this.seed = seed;
+
+        // Household exposures are drawn once
+        IntStream.range(0, chunks()).parallel().forEach(c -> {
+            SplittableRandom rng = new SplittableRandom(EnsembleEngine.mix64(seed ^ EnsembleEngine.mix64(-1L - c)));
+            int end = Math.min(agents, (c + 1) * CHUNK) * factors;
+            for (int i = c * CHUNK * factors; i < end; i++) {
+                exposure[i] = (byte) (EXPOSURE_UNIT / 2 + rng.nextInt(EXPOSURE_UNIT + 1));
+            }
+        });
+    }
+
+    CohortMicrosimulation withEnrollmentRate(double rate) {
+        this.enrollmentRate = rate;
+        return this;
+    }
+
+    CohortMicrosimulation withFamilyEffect(double effect) {
+        if (effect < 0 || effect > 1) throw new IllegalArgumentException("familyEffect must be in [0, 1]");
+        this.familyEffect = effect;
+        return this;
+    }
+
+    int agents() {
+        return agents;
+    }
+
+    boolean enrolled(int agent) {
+        return enrolled[agent] != 0;
+    }
+
+    double exposure(int agent, int factor) {
+        return (exposure[agent * factors + factor] & 0xFF) / (double) EXPOSURE_UNIT;
+    }
+
+    private int chunks() {
+        return (agents + CHUNK - 1) / CHUNK;
+    }
+
+    // Runs from scratch: the first year has no previous decisions, later years carry them
+    List<EnrollmentResult> run(EnrollmentModel model, int startYear, int yearsAhead) {
+        if (model.spec.factorCount() != factors) {
+            throw new IllegalArgumentException("Model was made for a different factor spec");
+        }
+        List<EnrollmentResult> results = new ArrayList<>(yearsAhead + 1);
+        long[] counts = new long[chunks() * 4];  // per chunk: females, female enrolled, males, male enrolled
+        for (int y = 0; y <= yearsAhead; y++) {
+            int year = startYear + y;
+            // Each factor's contribution to the year's gap, so a graduate's gap is the
+            // exposure-weighted sum of these
+            double[] effects = new double[factors];
+            double stageScale = spec.scale() * EnrollmentModel.yearFactor(year);
+            for (int f = 0; f < factors; f++) {
+                double effect = spec.effect(f, model.params, model.historicalData, year);
+                effects[f] = spec.scaled(f) ? effect * stageScale : effect;
+            }
+            double liftEnrolled = y == 0 ? 1 : 1 + familyEffect * (1 - enrollmentRate);
+            double liftNot = y == 0 ? 1 : 1 - familyEffect * enrollmentRate;
+
+            IntStream.range(0, chunks()).parallel().forEach(c ->
+                    simulateChunk(c, year, model, effects, liftEnrolled, liftNot, counts));
+
+            long females = 0, femaleEnrolled = 0, males = 0, maleEnrolled = 0;
+            for (int c = 0; c < chunks(); c++) {
+                females += counts[4 * c];
+                femaleEnrolled += counts[4 * c + 1];
+                males += counts[4 * c + 2];
+                maleEnrolled += counts[4 * c + 3];
+            }
+            // Normalize by cohort composition so a lopsided draw doesn't masquerade as a gap
+            double f = females == 0 ? 0 : femaleEnrolled / (double) females;
+            double m = males == 0 ? 0 : maleEnrolled / (double) males;
+            double total = f + m;
+            results.add(new EnrollmentResult(year,
+                    total == 0 ? 50 : f / total * 100,
+                    total == 0 ? 50 : m / total * 100));
+        }
+        return results;
+    }
+
+    private void simulateChunk(int c, int year, EnrollmentModel model, double[] effects,
+                               double liftEnrolled, double liftNot, long[] counts) {
+        SplittableRandom rng = new SplittableRandom(
+                EnsembleEngine.mix64(seed ^ EnsembleEngine.mix64(((long) year << 32) | c)));
+        int end = Math.min(agents, (c + 1) * CHUNK);
+        double bf = model.baseFemale, bm = model.baseMale;
+        double twoRate = 2 * enrollmentRate;
+        long females = 0, femaleEnrolled = 0, males = 0, maleEnrolled = 0;
+        for (int i = c * CHUNK; i < end; i++) {
+            // The graduate's gap and share, as EnrollmentModel.toResult computes them
+            double gap = 0;
+            int e = i * factors;
+            for (int f = 0; f < factors; f++) gap += (exposure[e + f] & 0xFF) * effects[f];
+            gap /= EXPOSURE_UNIT;
+            double share = Math.max(0, Math.min(1, (bf + gap) / (bf + bm)));
+            double lift = enrolled[i] != 0 ? liftEnrolled : liftNot;
+
+            boolean isFemale = rng.nextBoolean();
+            double p = Math.min(1, twoRate * lift * (isFemale ? share : 1 - share));
+            boolean enrolls = rng.nextDouble() < p;
+            enrolled[i] = (byte) (enrolls ? 1 : 0);
+            if (isFemale) {
+                females++;
+                if (enrolls) femaleEnrolled++;
+            } else {
+                males++;
+                if (enrolls) maleEnrolled++;
+            }
+        }
+        counts[4 * c] = females;
+        counts[4 * c + 1] = femaleEnrolled;
+        counts[4 * c + 2] = males;
+        counts[4 * c + 3] = maleEnrolled;
+    }
+
+    // java simulator.CohortMicrosimulation [agents] [yearsAhead] [seed]
+    public static void main(String[] args) {
+        int agents = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        Simulator simulator = new Simulator();
+
+        long start = System.nanoTime();
+        CohortMicrosimulation micro = new CohortMicrosimulation(simulator.model.spec, agents, seed);
+        List<EnrollmentResult> simulated = micro.run(simulator.model, simulator.currentYear, years);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        List<EnrollmentResult> aggregate = simulator.runProjection(years);
+
+        System.out.println("year,aggregate_female,micro_female,aggregate_gap,micro_gap");
+        for (int i = 0; i < simulated.size(); i++) {
+            EnrollmentResult a = aggregate.get(i), m = simulated.get(i);
+            System.out.printf("%d,%.3f,%.3f,%.3f,%.3f%n", a.year, a.femaleShare, m.femaleShare, a.gap, m.gap);
+        }
+        System.err.printf("%d agents x %d years in %d ms%n", agents, years + 1, ms);
+    }
+}
@@ -0,0 +1,328 @@
+package simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact columnar file of annual series (one float64 column per series) that is
+ * memory-mapped at startup and read lazily.
+ *
+ * Opening a file only reads the directory (series key, first year, length, offset);
+ * series data stays on disk until a series is first touched and is then exposed as a
+ * DoubleBuffer view of the mapping, so nothing is parsed or boxed.
+ *
+ * Layout (big-endian):
+ *   "RIPCCOL1" | int version | int seriesCount | long dataStart
+ *   seriesCount x { short keyLength | key UTF-8 | int firstYear | int count | long offset }
+ *   data: 8-byte aligned float64 blocks, NaN for missing years
+ *
+ * CSV input has a header row with a "year" column, a "value" column and any number of
+ * dimension columns (series, state, institution type, group, ...). The dimension values
+ * joined with '/' form the series key, e.g. "hsGraduation.female/CA/public". Fields are
+ * split on commas; quoted fields are not supported.
+ */
+public class ColumnarDataset implements AutoCloseable {
+
+    private static final byte[] MAGIC = "RIPCCOL1".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final long SEGMENT = 1L << 30;  // mapping window; MappedByteBuffer is int-indexed
+
+    static final class Entry {
+        final String key;
+        final int firstYear, count;
+        final long offset;
+
+        Entry(String key, int firstYear, int count, long offset) {
+            this.key = key;
+            this.firstYear = firstYear;
+            this.count = count;
+            this.offset = offset;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Map<String, Entry> directory;
+    private final MappedByteBuffer[] segments;
+    private final Map<String, DoubleBuffer> views = new ConcurrentHashMap<>();
+
+    private ColumnarDataset(FileChannel channel, Map<String, Entry> directory, long size) {
+        this.channel = channel;
+        this.directory = directory;
+        this.segments = new MappedByteBuffer[(int) ((size + SEGMENT - 1) / SEGMENT)];
+    }
+
+    public static ColumnarDataset open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer head = ByteBuffer.allocate(24);
+            readFully(channel, head, 0);
+            head.flip();
+            byte[] magic = new byte[MAGIC.length];
+            head.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException(file + " is not a columnar dataset");
+            int version = head.getInt();
+            if (version != VERSION) throw new IOException("Unsupported dataset version " + version);
+            int seriesCount = head.getInt();
+            long dataStart = head.getLong();
+
+            // Directory only: proportional to the number of series, not values
+            MappedByteBuffer dir = channel.map(FileChannel.MapMode.READ_ONLY, 24, dataStart - 24);
+            Map<String, Entry> directory = new HashMap<>(seriesCount * 2);
+            for (int i = 0; i < seriesCount; i++) {
+                byte[] key = new byte[dir.getShort() & 0xFFFF];
+                dir.get(key);
+                String k = new String(key, StandardCharsets.UTF_8);
+                directory.put(k, new Entry(k, dir.getInt(), dir.getInt(), dir.getLong()));
+            }
+            return new ColumnarDataset(channel, directory, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    boolean contains(String key) {
+        return directory.containsKey(key);
+    }
+
+    Entry entry(String key) {
+        return directory.get(key);
+    }
+
+    Iterable<String> keys() {
+        return directory.keySet();
+    }
+
+    int size() {
+        return directory.size();
+    }
+
+    // Read-only view of one series (index = year - firstYear), mapped on first access
+    DoubleBuffer series(String key) {
+        Entry e = directory.get(key);
+        if (e == null) return null;
+        return views.computeIfAbsent(key, k -> map(e)).duplicate();
+    }
+
+    double value(String key, int year) {
+        Entry e = directory.get(key);
+        if (e == null || year < e.firstYear || year >= e.firstYear + e.count) return Double.NaN;
+        return views.computeIfAbsent(key, k -> map(e)).get(year - e.firstYear);
+    }
+
+    private DoubleBuffer map(Entry e) {
+        long bytes = (long) e.count * Double.BYTES;
+        int seg = (int) (e.offset / SEGMENT);
+        try {
+            if ((e.offset + bytes - 1) / SEGMENT == seg) {
+                MappedByteBuffer segment = segment(seg);
+                return segment.slice((int) (e.offset - seg * SEGMENT), (int) bytes)
+                        .order(ByteOrder.BIG_ENDIAN).asDoubleBuffer();
+            }
+            // Straddles a window boundary: give it its own mapping
+            return channel.map(FileChannel.MapMode.READ_ONLY, e.offset, bytes).asDoubleBuffer();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not map series " + e.key, ex);
+        }
+    }
+
+    private synchronized MappedByteBuffer segment(int index) throws IOException {
+        if (segments[index] == null) {
+            long start = index * SEGMENT;
+            segments[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT, channel.size() - start));
+        }
+        return segments[index];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ============================================
+    // CSV -> COLUMNAR CONVERSION
+    // ============================================
+
+    // Not-yet-written slot during conversion: a NaN (so missing years read back as NaN)
+    // whose payload no parsed value has, so a second row for the same slot is caught
+    private static final long UNWRITTEN = 0x7ff8_0000_0000_0badL;
+
+    // Two streaming passes: collect series extents, then write values in place.
+    // Memory is proportional to the number of series, not the number of values.
+    // Rows with the wrong field count, a bad year or value, or a (key, year) already seen
+    // fail with an IOException naming the CSV line.
+    static void convertCsv(Path csv, Path out) throws IOException {
+        String[] header;
+        int yearCol, valueCol;
+        Map<String, int[]> extents = new LinkedHashMap<>();  // key -> {minYear, maxYear}
+
+        try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            if (line == null) throw new IOException(csv + " is empty");
+            header = line.split(",", -1);
+            yearCol = column(header, "year");
+            valueCol = column(header, "value");
+            int lineNo = 1;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                String[] fields = fields(csv, lineNo, line, header.length);
+                int year = year(csv, lineNo, fields[yearCol]);
+                value(csv, lineNo, fields[valueCol]);
+                int[] ext = extents.computeIfAbsent(key(fields, yearCol, valueCol), k -> new int[]{year, year});
+                ext[0] = Math.min(ext[0], year);
+                ext[1] = Math.max(ext[1], year);
+            }
+        }
+
+        // Directory
+        List<Entry> entries = new ArrayList<>(extents.size());
+        long dirBytes = 0;
+        for (String k : extents.keySet()) dirBytes += 2 + k.getBytes(StandardCharsets.UTF_8).length + 4 + 4 + 8;
+        long dataStart = (24 + dirBytes + 7) & ~7L;
+        long offset = dataStart;
+        Map<String, Entry> byKey = new HashMap<>(extents.size() * 2);
+        for (Map.Entry<String, int[]> e : extents.entrySet()) {
+            int count = e.getValue()[1] - e.getValue()[0] + 1;
+            Entry entry = new Entry(e.getKey(), e.getValue()[0], count, offset);
+            entries.add(entry);
+            byKey.put(entry.key, entry);
+            offset += (long) count * Double.BYTES;
+        }
+        long size = offset;
+
+        try (RandomAccessFile raf = new RandomAccessFile(out.toFile(), "rw");
+             FileChannel ch = raf.getChannel()) {
+            raf.setLength(0);
+            raf.setLength(size);
+
+            ByteBuffer head = ByteBuffer.allocate((int) (dataStart));
+            head.put(MAGIC).putInt(VERSION).putInt(entries.size()).putLong(dataStart);
+            for (Entry e : entries) {
+                byte[] k = e.key.getBytes(StandardCharsets.UTF_8);
+                head.putShort((short) k.length).put(k).putInt(e.firstYear).putInt(e.count).putLong(e.offset);
+            }
+            head.flip();
+            while (head.hasRemaining()) ch.write(head, head.position());
+
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((size + SEGMENT - 1) / SEGMENT)];
+
+            // Missing years read back as NaN
+            for (long p = dataStart; p < size; p += Double.BYTES) {
+                window(ch, windows, p, size).putLong((int) (p % SEGMENT), UNWRITTEN);
+            }
+
+            try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                in.readLine();
+                String line;
+                int lineNo = 1;
+                while ((line = in.readLine()) != null) {
+                    lineNo++;
+                    if (line.isBlank()) continue;
+                    String[] fields = fields(csv, lineNo, line, header.length);
+                    String key = key(fields, yearCol, valueCol);
+                    Entry e = byKey.get(key);
+                    int year = year(csv, lineNo, fields[yearCol]);
+                    long p = e.offset + (long) (year - e.firstYear) * Double.BYTES;
+                    // Blocks are 8-byte aligned and windows are 2^30, so a value never straddles windows
+                    MappedByteBuffer w = window(ch, windows, p, size);
+                    if (w.getLong((int) (p % SEGMENT)) != UNWRITTEN) {
+                        throw new IOException(csv + " line " + lineNo + ": duplicate row for " + key + " in " + year);
+                    }
+                    w.putDouble((int) (p % SEGMENT), value(csv, lineNo, fields[valueCol]));
+                }
+            }
+            for (MappedByteBuffer w : windows) {
+                if (w != null) w.force();
+            }
+        }
+    }
+
+    private static MappedByteBuffer window(FileChannel ch, MappedByteBuffer[] windows, long position, long size)
+            throws IOException {
+        int i = (int) (position / SEGMENT);
+        if (windows[i] == null) {
+            long start = i * SEGMENT;
+            windows[i] = ch.map(FileChannel.MapMode.READ_WRITE, start, Math.min(SEGMENT, size - start));
+        }
+        return windows[i];
+    }
+
+    private static String[] fields(Path csv, int lineNo, String line, int expected) throws IOException {
+        String[] fields = line.split(",", -1);
+        if (fields.length != expected) {
+            throw new IOException(csv + " line " + lineNo + ": expected " + expected + " fields, found " + fields.length);
+        }
+        return fields;
+    }
+
+    private static int year(Path csv, int lineNo, String field) throws IOException {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(csv + " line " + lineNo + ": bad year '" + field + "'");
+        }
+    }
+
+    private static double value(Path csv, int lineNo, String field) throws IOException {
+        try {
+            return Double.parseDouble(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(csv + " line " + lineNo + ": bad value '" + field + "'");
+        }
+    }
+
+    private static int column(String[] header, String name) throws IOException {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].trim().equalsIgnoreCase(name)) return i;
+        }
+        throw new IOException("CSV header has no '" + name + "' column");
+    }
+
+    private static String key(String[] fields, int yearCol, int valueCol) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i == yearCol || i == valueCol) continue;
+            if (sb.length() > 0) sb.append('/');
+            sb.append(fields[i].trim());
+        }
+        return sb.toString();
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+    }
+
+    // java simulator.ColumnarDataset input.csv output.ripc
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ColumnarDataset <input.csv> <output.ripc>");
+            return;
+        }
+        long start = System.nanoTime();
+        convertCsv(Path.of(args[0]), Path.of(args[1]));
+        try (ColumnarDataset ds = open(Path.of(args[1]))) {
+            System.err.printf("%d series written in %d ms%n", ds.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
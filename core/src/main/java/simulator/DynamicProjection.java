@@ -0,0 +1,350 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Time-stepped projection with feedback: unlike EnrollmentModel, where every year is
+ * evaluated on its own from the interpolated series, this steps a state forward from
+ * the start year so enrollment can feed back into the factors that drive it.
+ *
+ * Each feedback loop of the FactorSpec (`feedback` lines) keeps one state per scenario
+ * that relaxes towards gain x (gap - starting gap) with the loop's time constant and is
+ * added to its factor's effect. Between whole years the series and the 1980-2000 ramp
+ * are interpolated linearly, so quarterly and monthly steps resolve the loops more
+ * finely; the relaxation uses the exact exponential update, which is stable for any
+ * step. Outputs are sampled at the start of each year. Without feedback loops (or with
+ * feedback off) the outputs equal EnrollmentModel.calculateBatch.
+ *
+ * Scenarios are independent and split across a fork/join pool; all per-scenario state
+ * lives in per-thread primitive buffers made once per run, so stepping allocates
+ * nothing and no buffers outlive the run. Not thread-safe: one run at a time per instance.
+ */
+public final class DynamicProjection {
+
+    public enum Step {
+        ANNUAL(1), QUARTERLY(4), MONTHLY(12);
+
+        public final int perYear;
+
+        Step(int perYear) {
+            this.perYear = perYear;
+        }
+
+        public static Step forName(String name) {
+            for (Step s : values()) {
+                if (s.name().equalsIgnoreCase(name)) return s;
+            }
+            throw new IllegalArgumentException("Step must be annual, quarterly or monthly, got " + name);
+        }
+    }
+
+    private final EnrollmentModel model;
+    private final FactorSpec spec;
+    private Step step = Step.ANNUAL;
+    private boolean feedback = true;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int leafSize = 256;
+
+    // Per run, shared read-only by the workers: term values [term * years + yearIndex]
+    // (series terms; growth/const terms are year-invariant), the ramp per year and the
+    // relaxation per step of each loop. Grown on demand, never shrunk.
+    private double[] termValues = new double[0];
+    private double[] invariant;
+    private double[] ramp = new double[0];
+    private final double[] alpha, gain;
+
+    public DynamicProjection(EnrollmentEvaluator evaluator) {
+        this.model = evaluator.model;
+        this.spec = model.spec;
+        this.invariant = new double[spec.termEnd(spec.factorCount() - 1)];
+        this.alpha = new double[spec.feedbackCount()];
+        this.gain = new double[spec.feedbackCount()];
+        for (int k = 0; k < gain.length; k++) gain[k] = spec.feedbackGain(k);
+    }
+
+    public DynamicProjection withStep(Step step) {
+        this.step = step;
+        return this;
+    }
+
+    // false: no loops, each year as in the static model
+    public DynamicProjection withFeedback(boolean feedback) {
+        this.feedback = feedback;
+        return this;
+    }
+
+    public DynamicProjection withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    // Runs of at most this many scenarios execute on the calling thread
+    public DynamicProjection withLeafSize(int leafSize) {
+        this.leafSize = Math.max(1, leafSize);
+        return this;
+    }
+
+    public Step step() {
+        return step;
+    }
+
+    // Years [startYear, startYear + yearsAhead]
+    public List<EnrollmentResult> project(ParameterSnapshot params, int startYear, int yearsAhead) {
+        if (params.spec() != spec) {
+            throw new IllegalArgumentException("Snapshot was made for a different factor spec");
+        }
+        int m = yearsAhead + 1;
+        double[] female = new double[m], male = new double[m], gap = new double[m];
+        run(params.values, 1, startYear, yearsAhead, female, male, gap);
+        List<EnrollmentResult> results = new ArrayList<>(m);
+        for (int y = 0; y < m; y++) results.add(new EnrollmentResult(startYear + y, female[y], male[y]));
+        return results;
+    }
+
+    // n flat parameter vectors (spec layout) stepped over [startYear, startYear + yearsAhead];
+    // outputs at [scenario * (yearsAhead + 1) + yearIndex], as calculateBatch
+    public void run(double[] params, int n, int startYear, int yearsAhead,
+                    double[] female, double[] male, double[] gap) {
+        if (yearsAhead < 0) throw new IllegalArgumentException("yearsAhead must be >= 0");
+        int m = yearsAhead + 1;
+        prepare(startYear, m);
+        Chunk root = new Chunk(params, 0, n, m, female, male, gap, new ConcurrentHashMap<>());
+        if (n <= leafSize) root.compute();
+        else pool.invoke(root);
+    }
+
+    private void prepare(int startYear, int m) {
+        HistoricalData data = model.historicalData;
+        int terms = invariant.length;
+        if (termValues.length < terms * m) termValues = new double[terms * m];
+        if (ramp.length < m) ramp = new double[m];
+        for (int t = 0; t < terms; t++) {
+            if (spec.termKind(t) == FactorSpec.SERIES) {
+                for (int y = 0; y < m; y++) termValues[t * m + y] = spec.termValue(t, data, startYear + y);
+            } else {
+                invariant[t] = spec.termValue(t, data, startYear);
+            }
+        }
+        for (int y = 0; y < m; y++) ramp[y] = EnrollmentModel.yearFactor(startYear + y);
+        double dt = 1.0 / step.perYear;
+        for (int k = 0; k < alpha.length; k++) alpha[k] = -Math.expm1(-dt / spec.feedbackYears(k));
+    }
+
+    // Scenarios stepped in lockstep. Within one scenario every step waits on the last
+    // (gap -> loop state -> gap), so a block of independent scenarios per step keeps the
+    // pipeline full instead of one latency-bound chain
+    private static final int LANES = 16;
+
+    // Per-thread scratch for one block: exogenous stage sums [yearIndex * LANES + lane],
+    // loop states and the weight each loop enters the scaled or the unscaled stage with
+    // (the other is 0) [loop * LANES + lane], the starting gaps and the current step's
+    // stage sums and shares per lane
+    private static final class Worker {
+        final double[] scaled, adjustment;
+        final double[] state, scaledWeight, adjustmentWeight;
+        final double[] startGap = new double[LANES];
+        final double[] stepScaled = new double[LANES], stepAdjustment = new double[LANES];
+        final double[] stepFemale = new double[LANES], stepMale = new double[LANES], stepGap = new double[LANES];
+
+        Worker(int loops, int m) {
+            scaled = new double[m * LANES];
+            adjustment = new double[m * LANES];
+            state = new double[loops * LANES];
+            scaledWeight = new double[loops * LANES];
+            adjustmentWeight = new double[loops * LANES];
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+        final double[] params, female, male, gap;
+        final int from, to, m;
+        final Map<Thread, Worker> workers;
+
+        Chunk(double[] params, int from, int to, int m, double[] female, double[] male, double[] gap,
+              Map<Thread, Worker> workers) {
+            this.params = params; this.from = from; this.to = to; this.m = m;
+            this.female = female; this.male = male; this.gap = gap;
+            this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                Worker w = workers.computeIfAbsent(Thread.currentThread(), t -> new Worker(spec.feedbackCount(), m));
+                for (int s = from; s < to; s += LANES) block(w, s, Math.min(LANES, to - s));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(params, from, mid, m, female, male, gap, workers),
+                    new Chunk(params, mid, to, m, female, male, gap, workers));
+        }
+
+        // Scenarios [first, first + lanes)
+        private void block(Worker w, int first, int lanes) {
+            int loops = feedback ? spec.feedbackCount() : 0;
+            double[] state = w.state, scaledWeight = w.scaledWeight, adjustmentWeight = w.adjustmentWeight;
+            // Lanes past the last scenario repeat it; their results are never stored
+            for (int l = 0; l < LANES; l++) {
+                int p = (first + Math.min(l, lanes - 1)) * spec.parameterCount();
+                exogenous(w, p, l);
+                for (int k = 0; k < loops; k++) {
+                    int f = spec.feedbackFactor(k);
+                    int wi = spec.weightIndex(f);
+                    double weight = wi < 0 ? 1 : params[p + wi];
+                    scaledWeight[k * LANES + l] = spec.scaled(f) ? weight : 0;
+                    adjustmentWeight[k * LANES + l] = spec.scaled(f) ? 0 : weight;
+                    state[k * LANES + l] = 0;
+                }
+            }
+
+            double[] scaled = w.scaled, adjustment = w.adjustment, startGap = w.startGap;
+            double[] fs = w.stepScaled, fa = w.stepAdjustment, ff = w.stepFemale, fm = w.stepMale, fg = w.stepGap;
+            double[] ramp = DynamicProjection.this.ramp;
+            double[] alpha = DynamicProjection.this.alpha, gain = DynamicProjection.this.gain;
+            double[] female = this.female, male = this.male, gap = this.gap;
+            double scale = spec.scale();
+            double bf = model.baseFemale, bm = model.baseMale;
+            int perYear = step.perYear;
+            double dt = 1.0 / perYear;
+            int m = this.m;
+
+            // Each phase is a flat loop over the lanes, which the JIT can vectorize
+            for (int y = 0; y < m; y++) {
+                // The last year is only sampled, not stepped through
+                int steps = y == m - 1 ? 1 : perYear;
+                int cur = y * LANES, next = steps > 1 ? cur + LANES : cur;
+                double r0 = ramp[y], dr = steps > 1 ? ramp[y + 1] - r0 : 0;
+                for (int j = 0; j < steps; j++) {
+                    // fr = 0 on the whole year gives the stage sums exactly, as the static model
+                    double fr = j * dt;
+                    double yf = r0 + fr * dr;
+                    for (int l = 0; l < LANES; l++) {
+                        double s0 = scaled[cur + l], a0 = adjustment[cur + l];
+                        fs[l] = s0 + fr * (scaled[next + l] - s0);
+                        fa[l] = a0 + fr * (adjustment[next + l] - a0);
+                    }
+                    for (int k = 0; k < loops; k++) {
+                        int kl = k * LANES;
+                        for (int l = 0; l < LANES; l++) {
+                            fs[l] += state[kl + l] * scaledWeight[kl + l];
+                            fa[l] += state[kl + l] * adjustmentWeight[kl + l];
+                        }
+                    }
+
+                    // Same arithmetic as calculateBatch
+                    for (int l = 0; l < LANES; l++) {
+                        double totalGap = fs[l] * scale * yf + fa[l];
+                        double f = bf + totalGap;
+                        double ml = bm - totalGap;
+                        double total = f + ml;
+                        f = Math.max(0, Math.min(100, (f / total) * 100));
+                        ml = Math.max(0, Math.min(100, (ml / total) * 100));
+                        ff[l] = f;
+                        fm[l] = ml;
+                        fg[l] = f - ml;
+                    }
+                    if (j == 0) {
+                        for (int l = 0; l < lanes; l++) {
+                            int o = (first + l) * m + y;
+                            female[o] = ff[l];
+                            male[o] = fm[l];
+                            gap[o] = fg[l];
+                        }
+                        if (y == 0) System.arraycopy(fg, 0, startGap, 0, LANES);
+                    }
+
+                    for (int k = 0; k < loops; k++) {
+                        int kl = k * LANES;
+                        double gk = gain[k], ak = alpha[k];
+                        for (int l = 0; l < LANES; l++) {
+                            state[kl + l] += (gk * (fg[l] - startGap[l]) - state[kl + l]) * ak;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Stage sums per year without feedback for one lane, folded as in calculateBatch:
+        // constant and growth terms first, then the series terms in spec order
+        private void exogenous(Worker w, int p, int lane) {
+            double scaledConstant = 0, adjustmentConstant = 0;
+            for (int f = 0; f < spec.factorCount(); f++) {
+                for (int t = spec.termStart(f); t < spec.termEnd(f); t++) {
+                    if (spec.termKind(t) == FactorSpec.SERIES) continue;
+                    double c = spec.weightedCoefficient(t, f, params, p);
+                    if (spec.scaled(f)) scaledConstant += c * invariant[t];
+                    else adjustmentConstant += c * invariant[t];
+                }
+            }
+            double[] scaled = w.scaled, adjustment = w.adjustment;
+            for (int y = 0; y < m; y++) {
+                scaled[y * LANES + lane] = scaledConstant;
+                adjustment[y * LANES + lane] = adjustmentConstant;
+            }
+            for (int f = 0; f < spec.factorCount(); f++) {
+                double[] sums = spec.scaled(f) ? scaled : adjustment;
+                for (int t = spec.termStart(f); t < spec.termEnd(f); t++) {
+                    if (spec.termKind(t) != FactorSpec.SERIES) continue;
+                    double c = spec.weightedCoefficient(t, f, params, p);
+                    int base = t * m;
+                    for (int y = 0; y < m; y++) sums[y * LANES + lane] += c * termValues[base + y];
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean loops = !Arrays.asList(args).contains("--no-feedback");
+        String[] a = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toArray(String[]::new);
+        int years = a.length > 0 ? Integer.parseInt(a[0]) : 100;
+        Step step = a.length > 1 ? Step.forName(a[1]) : Step.ANNUAL;
+        int scenarios = a.length > 2 ? Integer.parseInt(a[2]) : 1;
+        int threads = a.length > 3 ? Integer.parseInt(a[3]) : Runtime.getRuntime().availableProcessors();
+        int startYear = new Simulator().currentYear;
+        int m = years + 1;
+
+        // Scenario 0 is the defaults, the rest drawn as in the ensemble
+        FactorSpec spec = FactorSpec.builtIn();
+        EnsembleEngine draws = EnsembleEngine.withDefaultUncertainty(spec);
+        int stride = spec.parameterCount();
+        double[] params = new double[scenarios * stride];
+        System.arraycopy(spec.defaults(), 0, params, 0, stride);
+        for (int s = 1; s < scenarios; s++) draws.sample(1980, s, params, s * stride);
+        double[] female = new double[scenarios * m], male = new double[scenarios * m], gap = new double[scenarios * m];
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        DynamicProjection projection = new DynamicProjection(new EnrollmentEvaluator(spec, new HistoricalData()))
+                .withStep(step).withFeedback(loops).withPool(pool);
+        long start = System.nanoTime();
+        projection.run(params, scenarios, startYear, years, female, male, gap);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        pool.shutdown();
+
+        if (scenarios == 1) {
+            System.out.println("year,female,male,gap");
+            for (int y = 0; y < m; y++) {
+                System.out.printf("%d,%.2f,%.2f,%+.2f%n", startYear + y, female[y], male[y], gap[y]);
+            }
+        } else {
+            System.out.println("year,gapMin,gapMean,gapMax");
+            for (int y = 0; y < m; y++) {
+                double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY, sum = 0;
+                for (int s = 0; s < scenarios; s++) {
+                    double g = gap[s * m + y];
+                    lo = Math.min(lo, g);
+                    hi = Math.max(hi, g);
+                    sum += g;
+                }
+                System.out.printf("%d,%+.2f,%+.2f,%+.2f%n", startYear + y, lo, sum / scenarios, hi);
+            }
+        }
+        System.err.printf("%d scenarios x %d years, %s steps (%d per scenario) on %d threads in %d ms%n",
+                scenarios, m, step.name().toLowerCase(), years * step.perYear + 1, threads, ms);
+    }
+}
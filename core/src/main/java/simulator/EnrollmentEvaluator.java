@@ -0,0 +1,65 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stateless evaluation of the enrollment model. Parameters come in with every call
+ * (a ParameterSnapshot or a flat batch); the spec and the historical record are fixed
+ * at construction, with the record copied so later loads into the caller's
+ * HistoricalData cannot race. One instance can serve the UI thread and any number of
+ * workers at once without locks or per-thread model copies.
+ */
+public final class EnrollmentEvaluator {
+
+    // Never mutated after construction; only its read-only paths are used (here, by Sensitivity and DynamicProjection)
+    final EnrollmentModel model;
+
+    public EnrollmentEvaluator(FactorSpec spec, HistoricalData historicalData) {
+        this.model = new EnrollmentModel(spec, new HistoricalData(historicalData));
+    }
+
+    // Built-in spec and historical record
+    public EnrollmentEvaluator() {
+        this(FactorSpec.builtIn(), new HistoricalData());
+    }
+
+    public FactorSpec spec() {
+        return model.spec;
+    }
+
+    public EnrollmentResult evaluate(ParameterSnapshot params, int year) {
+        double[] female = new double[1], male = new double[1], gap = new double[1];
+        model.calculateBatch(values(params), 1, year, 1, female, male, gap);
+        return new EnrollmentResult(year, female[0], male[0]);
+    }
+
+    // Years [startYear, startYear + yearsAhead]
+    public List<EnrollmentResult> project(ParameterSnapshot params, int startYear, int yearsAhead) {
+        int m = yearsAhead + 1;
+        double[] female = new double[m], male = new double[m], gap = new double[m];
+        project(params, startYear, m, female, male, gap);
+        List<EnrollmentResult> results = new ArrayList<>(m);
+        for (int y = 0; y < m; y++) results.add(new EnrollmentResult(startYear + y, female[y], male[y]));
+        return results;
+    }
+
+    // Years [startYear, startYear + m) into caller-owned arrays
+    public void project(ParameterSnapshot params, int startYear, int m, double[] female, double[] male, double[] gap) {
+        model.calculateBatch(values(params), 1, startYear, m, female, male, gap);
+    }
+
+    // n flat parameter vectors (spec layout, stride spec().parameterCount()) over years
+    // [startYear, startYear + m); outputs at [scenario * m + yearIndex]. Not range-checked.
+    public void evaluateBatch(double[] params, int n, int startYear, int m,
+                              double[] female, double[] male, double[] gap) {
+        model.calculateBatch(params, n, startYear, m, female, male, gap);
+    }
+
+    private double[] values(ParameterSnapshot params) {
+        if (params.spec() != model.spec) {
+            throw new IllegalArgumentException("Snapshot was made for a different factor spec");
+        }
+        return params.values;
+    }
+}
@@ -0,0 +1,174 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * The enrollment model: factor effects from the FactorSpec over HistoricalData, scaled,
+ * ramped in over 1980-2000 and turned into female/male shares.
+ */
+public class EnrollmentModel {
+    // Final so a model shared for reading (EnrollmentEvaluator) cannot be re-pointed;
+    // the contents are only changed by whoever owns the model
+    public final HistoricalData historicalData;
+    // Factors and their flat parameter layout; params[i] is spec parameter i
+    public final FactorSpec spec;
+    final double[] params;
+    double baseFemale = 0.50;
+    double baseMale = 0.50;
+
+    public EnrollmentModel() {
+        this(FactorSpec.builtIn());
+    }
+
+    public EnrollmentModel(FactorSpec spec) {
+        this(spec, new HistoricalData());
+    }
+
+    // Reads (and never copies) historicalData
+    public EnrollmentModel(FactorSpec spec, HistoricalData historicalData) {
+        this.spec = spec;
+        this.historicalData = historicalData;
+        this.params = spec.defaults();
+    }
+
+    public void setParameter(int index, double value) {
+        params[index] = value;
+    }
+
+    // A full vector in the spec's layout, from values[offset ..]
+    public void setParameters(double[] values, int offset) {
+        System.arraycopy(values, offset, params, 0, params.length);
+    }
+
+    public double parameter(int index) {
+        return params[index];
+    }
+
+    public EnrollmentResult calculateEnrollment(int year) {
+        SimulatorEvents.CalculateEnrollment event = new SimulatorEvents.CalculateEnrollment();
+        event.begin();
+        double totalGap = 0;
+        double adjustment = 0;
+        for (int f = 0; f < spec.factorCount(); f++) {
+            double effect = spec.effect(f, params, historicalData, year);
+            if (spec.scaled(f)) totalGap += effect;
+            else adjustment += effect;
+        }
+
+        totalGap = totalGap * spec.scale() * yearFactor(year);
+        totalGap = totalGap + adjustment;
+        event.year = year;
+        event.commit();
+        return toResult(year, totalGap);
+    }
+
+    EnrollmentResult toResult(int year, double totalGap) {
+        double female = baseFemale + totalGap;
+        double male = baseMale - totalGap;
+        double total = female + male;
+
+        female = (female / total) * 100;
+        male = (male / total) * 100;
+
+        return new EnrollmentResult(year,
+                Math.max(0, Math.min(100, female)),
+                Math.max(0, Math.min(100, male)));
+    }
+
+    static double yearFactor(int year) {
+        if (year < 2000) {
+            return Math.pow((year - 1980) / 20.0, 0.7);
+        }
+        return 1.0;
+    }
+
+    // yearFactor for every year of the historical lookup table (no pow/branch in the batch loop)
+    private static final double[] YEAR_FACTOR = new double[HistoricalData.TABLE_SPAN];
+    static {
+        for (int i = 0; i < YEAR_FACTOR.length; i++) {
+            YEAR_FACTOR[i] = yearFactor(HistoricalData.TABLE_FIRST_YEAR + i);
+        }
+    }
+
+    // Batch evaluation of n parameter vectors (flat, spec layout, stride spec.parameterCount())
+    // over years [startYear, startYear + m). Outputs are written at [scenario * m + yearIndex].
+    // The spec's terms are folded into per-scenario coefficients: constant and growth terms
+    // collapse into one constant per stage, series terms into a coefficient per table row,
+    // so the per-year loops are straight array math. The stage layout comes precomputed
+    // from the spec and the stage sums accumulate in the female/male outputs, so nothing
+    // is allocated.
+    // Only reads historicalData, the spec and the base shares, so one model can serve many threads.
+    public void calculateBatch(double[] params, int n, int startYear, int m,
+                        double[] female, double[] male, double[] gap) {
+        HistoricalData data = historicalData;
+        if (startYear < HistoricalData.TABLE_FIRST_YEAR || startYear + m - 1 > HistoricalData.TABLE_LAST_YEAR) {
+            calculateBatchSlow(params, n, startYear, m, female, male, gap);
+            return;
+        }
+        FactorSpec spec = this.spec;
+        int stride = spec.parameterCount();
+        double[] table = data.table;
+        int t0 = startYear - HistoricalData.TABLE_FIRST_YEAR;
+        int[] scaledTerms = spec.scaledSeriesTerms();
+        int[] adjustmentTerms = spec.adjustmentSeriesTerms();
+        int[] invariantTerms = spec.invariantTerms();
+        double scale = spec.scale();
+        double bf = baseFemale, bm = baseMale;
+
+        for (int s = 0; s < n; s++) {
+            int p = s * stride;
+            int o = s * m;
+            double scaledConstant = 0, adjustmentConstant = 0;
+            for (int t : invariantTerms) {
+                int f = spec.termFactor(t);
+                double c = spec.weightedCoefficient(t, f, params, p);
+                if (spec.scaled(f)) scaledConstant += c * spec.termValue(t, data, startYear);
+                else adjustmentConstant += c * spec.termValue(t, data, startYear);
+            }
+
+            // Stage sums per year: female holds the scaled stage, male the unscaled one
+            Arrays.fill(female, o, o + m, scaledConstant);
+            Arrays.fill(male, o, o + m, adjustmentConstant);
+            for (int t : scaledTerms) {
+                double c = spec.weightedCoefficient(t, spec.termFactor(t), params, p);
+                int row = spec.termRow(t) + t0;
+                for (int y = 0; y < m; y++) female[o + y] += c * table[row + y];
+            }
+            for (int t : adjustmentTerms) {
+                double c = spec.weightedCoefficient(t, spec.termFactor(t), params, p);
+                int row = spec.termRow(t) + t0;
+                for (int y = 0; y < m; y++) male[o + y] += c * table[row + y];
+            }
+
+            for (int y = 0; y < m; y++) {
+                double totalGap = female[o + y] * scale * YEAR_FACTOR[t0 + y] + male[o + y];
+                double f = bf + totalGap;
+                double ml = bm - totalGap;
+                double total = f + ml;
+                f = Math.max(0, Math.min(100, (f / total) * 100));
+                ml = Math.max(0, Math.min(100, (ml / total) * 100));
+                female[o + y] = f;
+                male[o + y] = ml;
+                gap[o + y] = f - ml;
+            }
+        }
+    }
+
+    // Years outside the lookup table: fall back to the scalar path on a scratch model
+    private void calculateBatchSlow(double[] params, int n, int startYear, int m,
+                                    double[] female, double[] male, double[] gap) {
+        EnrollmentModel scratch = new EnrollmentModel(spec, historicalData);
+        scratch.baseFemale = baseFemale;
+        scratch.baseMale = baseMale;
+        int stride = spec.parameterCount();
+        for (int s = 0; s < n; s++) {
+            System.arraycopy(params, s * stride, scratch.params, 0, stride);
+            for (int y = 0; y < m; y++) {
+                EnrollmentResult r = scratch.calculateEnrollment(startYear + y);
+                female[s * m + y] = r.femaleShare;
+                male[s * m + y] = r.maleShare;
+                gap[s * m + y] = r.gap;
+            }
+        }
+    }
+}
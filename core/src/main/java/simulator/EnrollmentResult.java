@@ -0,0 +1,12 @@
+package simulator;
+
+/**
+ * Female and male shares of enrollment (percent) for one year; gap = female - male.
+ */
+public class EnrollmentResult {
+    public int year;
+    public double femaleShare, maleShare, gap;
+    public EnrollmentResult(int y, double f, double m) {
+        year = y; femaleShare = f; maleShare = m; gap = f - m;
+    }
+}
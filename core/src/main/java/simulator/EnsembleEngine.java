@@ -0,0 +1,288 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Headless Monte Carlo mode: draws the weights and multipliers from per-parameter
+ * distributions, runs the projection for every scenario across a fork/join pool and
+ * reduces the results to per-year percentile bands.
+ *
+ * Scenario i always gets the RNG stream derived from (seed, i), and results are
+ * accumulated into fixed-resolution histograms (integer counts), so the output is
+ * identical no matter how many threads run or how the work gets split.
+ */
+class EnsembleEngine {
+
+    // Histogram resolution in percentage points
+    static final double RESOLUTION = 0.01;
+    // Scenarios evaluated per calculateBatch call
+    private static final int BLOCK = 256;
+
+    enum Metric {
+        FEMALE(0, 100), MALE(0, 100), GAP(-100, 100);
+
+        final double lo;
+        final int bins;
+
+        Metric(double lo, double hi) {
+            this.lo = lo;
+            this.bins = (int) Math.round((hi - lo) / RESOLUTION) + 1;
+        }
+
+        int bin(double value) {
+            int b = (int) Math.round((value - lo) / RESOLUTION);
+            return Math.max(0, Math.min(bins - 1, b));
+        }
+
+        double valueOf(int bin) {
+            return lo + bin * RESOLUTION;
+        }
+    }
+
+    interface Distribution {
+        double sample(SplittableRandom rng);
+    }
+
+    static Distribution fixed(double value) {
+        return rng -> value;
+    }
+
+    static Distribution uniform(double lo, double hi) {
+        return rng -> lo + (hi - lo) * rng.nextDouble();
+    }
+
+    // Normal draw clamped into [lo, hi] (the slider range)
+    static Distribution normal(double mean, double sd, double lo, double hi) {
+        return rng -> {
+            double u1 = 1.0 - rng.nextDouble();
+            double u2 = rng.nextDouble();
+            double z = Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+            return Math.max(lo, Math.min(hi, mean + sd * z));
+        };
+    }
+
+    static Distribution triangular(double lo, double mode, double hi) {
+        return rng -> {
+            double u = rng.nextDouble();
+            double c = (mode - lo) / (hi - lo);
+            if (u < c) return lo + Math.sqrt(u * (hi - lo) * (mode - lo));
+            return hi - Math.sqrt((1 - u) * (hi - lo) * (hi - mode));
+        };
+    }
+
+    private final FactorSpec spec;
+    private final Distribution[] distributions;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int leafSize = 2048;
+
+    EnsembleEngine() {
+        this(FactorSpec.builtIn());
+    }
+
+    // Every parameter fixed at its default
+    EnsembleEngine(FactorSpec spec) {
+        this.spec = spec;
+        this.distributions = new Distribution[spec.parameterCount()];
+        for (int i = 0; i < distributions.length; i++) distributions[i] = fixed(spec.defaultValue(i));
+    }
+
+    static EnsembleEngine withDefaultUncertainty() {
+        return withDefaultUncertainty(FactorSpec.builtIn());
+    }
+
+    // Weights +/- 0.05 around their defaults, multipliers ~ N(1, 0.15) within the slider range
+    static EnsembleEngine withDefaultUncertainty(FactorSpec spec) {
+        EnsembleEngine engine = new EnsembleEngine(spec);
+        for (int i = 0; i < spec.parameterCount(); i++) {
+            double mean = spec.defaultValue(i), lo = spec.min(i), hi = spec.max(i);
+            if (spec.isWeight(i)) {
+                engine.set(i, uniform(Math.max(lo, mean - 0.05), Math.min(hi, mean + 0.05)));
+            } else {
+                engine.set(i, normal(mean, 0.15, lo, hi));
+            }
+        }
+        return engine;
+    }
+
+    // Parameter index in the spec's layout
+    EnsembleEngine set(int param, Distribution d) {
+        distributions[param] = d;
+        return this;
+    }
+
+    EnsembleEngine withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    EnsembleEngine withLeafSize(int leafSize) {
+        this.leafSize = Math.max(1, leafSize);
+        return this;
+    }
+
+    // Draws the parameter vector for one scenario into out[offset .. offset + parameterCount)
+    void sample(long seed, long scenario, double[] out, int offset) {
+        SplittableRandom rng = new SplittableRandom(mix64(seed ^ mix64(scenario + 0x9E3779B97F4A7C15L)));
+        for (int i = 0; i < distributions.length; i++) {
+            out[offset + i] = distributions[i].sample(rng);
+        }
+    }
+
+    EnsembleResult run(long scenarios, int yearsAhead, long seed) {
+        int startYear = new Simulator().currentYear;
+        int years = yearsAhead + 1;
+        Map<Thread, Worker> workers = new ConcurrentHashMap<>();
+        pool.invoke(new Chunk(0, scenarios, seed, startYear, years, new EnrollmentEvaluator(spec, new HistoricalData()), workers));
+
+        // Integer counts: merge order does not matter
+        long[][][] merged = new long[Metric.values().length][years][];
+        for (Metric m : Metric.values()) {
+            for (int y = 0; y < years; y++) merged[m.ordinal()][y] = new long[m.bins];
+        }
+        for (Worker w : workers.values()) {
+            for (Metric m : Metric.values()) {
+                for (int y = 0; y < years; y++) {
+                    long[] dst = merged[m.ordinal()][y];
+                    int[] src = w.counts[m.ordinal()][y];
+                    for (int b = 0; b < dst.length; b++) dst[b] += src[b];
+                }
+            }
+        }
+        return new EnsembleResult(startYear, scenarios, merged);
+    }
+
+    // Per-thread scratch: one block of parameters/outputs plus histogram counts
+    private static final class Worker {
+        final double[] params;
+        final double[] female, male, gap;
+        final int[][][] counts;
+
+        Worker(int parameters, int years) {
+            params = new double[BLOCK * parameters];
+            female = new double[BLOCK * years];
+            male = new double[BLOCK * years];
+            gap = new double[BLOCK * years];
+            counts = new int[Metric.values().length][years][];
+            for (Metric m : Metric.values()) {
+                for (int y = 0; y < years; y++) counts[m.ordinal()][y] = new int[m.bins];
+            }
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+        final long from, to, seed;
+        final int startYear, years;
+        final EnrollmentEvaluator evaluator;  // stateless, shared by every leaf
+        final Map<Thread, Worker> workers;
+
+        Chunk(long from, long to, long seed, int startYear, int years,
+              EnrollmentEvaluator evaluator, Map<Thread, Worker> workers) {
+            this.from = from; this.to = to; this.seed = seed;
+            this.startYear = startYear; this.years = years;
+            this.evaluator = evaluator; this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                Worker w = workers.computeIfAbsent(Thread.currentThread(), t -> new Worker(spec.parameterCount(), years));
+                int[][] femaleCounts = w.counts[Metric.FEMALE.ordinal()];
+                int[][] maleCounts = w.counts[Metric.MALE.ordinal()];
+                int[][] gapCounts = w.counts[Metric.GAP.ordinal()];
+                for (long s = from; s < to; s += BLOCK) {
+                    int count = (int) Math.min(BLOCK, to - s);
+                    for (int i = 0; i < count; i++) {
+                        sample(seed, s + i, w.params, i * spec.parameterCount());
+                    }
+                    evaluator.evaluateBatch(w.params, count, startYear, years, w.female, w.male, w.gap);
+                    for (int i = 0; i < count; i++) {
+                        int o = i * years;
+                        for (int y = 0; y < years; y++) {
+                            femaleCounts[y][Metric.FEMALE.bin(w.female[o + y])]++;
+                            maleCounts[y][Metric.MALE.bin(w.male[o + y])]++;
+                            gapCounts[y][Metric.GAP.bin(w.gap[o + y])]++;
+                        }
+                    }
+                }
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            invokeAll(new Chunk(from, mid, seed, startYear, years, evaluator, workers),
+                    new Chunk(mid, to, seed, startYear, years, evaluator, workers));
+        }
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static class EnsembleResult {
+        final int startYear;
+        final long scenarios;
+        private final long[][][] counts;  // [metric][yearIndex][bin]
+
+        EnsembleResult(int startYear, long scenarios, long[][][] counts) {
+            this.startYear = startYear;
+            this.scenarios = scenarios;
+            this.counts = counts;
+        }
+
+        int years() {
+            return counts[0].length;
+        }
+
+        // Nearest-rank percentile, q in [0, 1]
+        double percentile(Metric metric, int yearIndex, double q) {
+            long[] hist = counts[metric.ordinal()][yearIndex];
+            long rank = Math.max(1, (long) Math.ceil(q * scenarios));
+            long seen = 0;
+            for (int b = 0; b < hist.length; b++) {
+                seen += hist[b];
+                if (seen >= rank) return metric.valueOf(b);
+            }
+            return metric.valueOf(hist.length - 1);
+        }
+
+        double[] band(Metric metric, double q) {
+            double[] out = new double[years()];
+            for (int y = 0; y < out.length; y++) out[y] = percentile(metric, y, q);
+            return out;
+        }
+
+        List<String> toTable() {
+            List<String> rows = new ArrayList<>();
+            rows.add("year,female_p5,female_p50,female_p95,male_p5,male_p50,male_p95,gap_p5,gap_p50,gap_p95");
+            for (int y = 0; y < years(); y++) {
+                StringBuilder sb = new StringBuilder().append(startYear + y);
+                for (Metric m : Metric.values()) {
+                    sb.append(String.format(",%.2f,%.2f,%.2f",
+                            percentile(m, y, 0.05), percentile(m, y, 0.50), percentile(m, y, 0.95)));
+                }
+                rows.add(sb.toString());
+            }
+            return rows;
+        }
+    }
+
+    // java simulator.EnsembleEngine [scenarios] [yearsAhead] [seed]
+    public static void main(String[] args) {
+        long scenarios = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        long start = System.nanoTime();
+        EnsembleResult result = withDefaultUncertainty().run(scenarios, years, seed);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+
+        result.toTable().forEach(System.out::println);
+        System.err.printf("%d scenarios x %d years in %d ms%n", scenarios, years + 1, ms);
+    }
+}
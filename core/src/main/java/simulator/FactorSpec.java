@@ -0,0 +1,532 @@
+package simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Factors declared in a text spec (see resources/simulator/factors.spec) and compiled
+ * into flat arrays.
+ *
+ * Parameters become one double[] layout (index = declaration order) and every factor
+ * becomes a run of terms in parallel arrays: kind, series, growth years, coefficient,
+ * multiplier index. Evaluation is an index loop over those arrays, with no string
+ * lookups or per-factor dispatch, and the batch evaluator folds the same arrays into
+ * per-scenario coefficients.
+ *
+ * Specs are immutable once compiled and can be shared between models and threads.
+ */
+public final class FactorSpec {
+
+    static final String RESOURCE = "factors.spec";
+    // Dependency masks are longs
+    static final int MAX_PARAMETERS = 64;
+
+    static final int SERIES = 0, GROWTH = 1, CONST = 2;
+
+    private static FactorSpec builtIn;
+
+    private final double scale;
+
+    // Parameters
+    private final String[] paramKeys;
+    private final String[] paramLabels;
+    private final boolean[] paramIsWeight;
+    private final double[] paramDefaults, paramMins, paramMaxs;
+    private final Map<String, Integer> paramIndex = new HashMap<>();
+
+    // Factors: terms of factor f are [termStart[f], termStart[f + 1])
+    private final String[] factorNames;
+    private final int[] factorWeight;       // parameter index, -1 = unweighted
+    private final boolean[] factorScaled;
+    private final int[] termStart;
+
+    // Terms
+    private final int[] termKind;
+    private final HistoricalData.Series[] termSeries;
+    private final int[] termFrom, termTo;   // GROWTH only
+    private final double[] termCoef;
+    private final int[] termMultiplier;     // parameter index, -1 = none
+    private final int[] termFactor;
+    private final int[] termRow;            // SERIES only: first table slot of the series
+
+    // Batch layout, in term order: series terms of scaled / unscaled factors, and the
+    // year-invariant (growth and constant) terms
+    private final int[] scaledSeriesTerms, adjustmentSeriesTerms, invariantTerms;
+
+    // Feedback loops (time-stepped projection only): factor, gain per gap point, time constant
+    private final int[] feedbackFactor;
+    private final double[] feedbackGain, feedbackYears;
+
+    private FactorSpec(Builder b) {
+        scale = b.scale;
+        int n = b.paramKeys.size();
+        paramKeys = b.paramKeys.toArray(new String[0]);
+        paramLabels = b.paramLabels.toArray(new String[0]);
+        paramIsWeight = new boolean[n];
+        paramDefaults = new double[n];
+        paramMins = new double[n];
+        paramMaxs = new double[n];
+        for (int i = 0; i < n; i++) {
+            paramIsWeight[i] = b.paramIsWeight.get(i);
+            paramDefaults[i] = b.paramRanges.get(i)[0];
+            paramMins[i] = b.paramRanges.get(i)[1];
+            paramMaxs[i] = b.paramRanges.get(i)[2];
+            paramIndex.put(paramKeys[i], i);
+        }
+
+        int f = b.factorNames.size();
+        factorNames = b.factorNames.toArray(new String[0]);
+        factorWeight = ints(b.factorWeight);
+        factorScaled = new boolean[f];
+        for (int i = 0; i < f; i++) factorScaled[i] = b.factorScaled.get(i);
+        termStart = new int[f + 1];
+        for (int i = 0; i < f; i++) termStart[i] = b.factorTermStart.get(i);
+        termStart[f] = b.termKind.size();
+
+        int t = b.termKind.size();
+        termKind = ints(b.termKind);
+        termSeries = b.termSeries.toArray(new HistoricalData.Series[0]);
+        termFrom = ints(b.termFrom);
+        termTo = ints(b.termTo);
+        termCoef = new double[t];
+        for (int i = 0; i < t; i++) termCoef[i] = b.termCoef.get(i);
+        termMultiplier = ints(b.termMultiplier);
+
+        termFactor = new int[t];
+        termRow = new int[t];
+        List<Integer> scaledSeries = new ArrayList<>(), adjustmentSeries = new ArrayList<>(), invariant = new ArrayList<>();
+        for (int i = 0; i < f; i++) {
+            for (int term = termStart[i]; term < termStart[i + 1]; term++) {
+                termFactor[term] = i;
+                if (termKind[term] != SERIES) {
+                    invariant.add(term);
+                } else {
+                    termRow[term] = termSeries[term].ordinal() * HistoricalData.TABLE_SPAN;
+                    (factorScaled[i] ? scaledSeries : adjustmentSeries).add(term);
+                }
+            }
+        }
+        scaledSeriesTerms = ints(scaledSeries);
+        adjustmentSeriesTerms = ints(adjustmentSeries);
+        invariantTerms = ints(invariant);
+
+        int k = b.feedbackFactor.size();
+        feedbackFactor = ints(b.feedbackFactor);
+        feedbackGain = new double[k];
+        feedbackYears = new double[k];
+        for (int i = 0; i < k; i++) {
+            feedbackGain[i] = b.feedbackGain.get(i);
+            feedbackYears[i] = b.feedbackYears.get(i);
+        }
+    }
+
+    // Plain loop rather than a stream: keeps lambda bootstrap off the CLI's startup path
+    private static int[] ints(List<Integer> list) {
+        int[] out = new int[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = list.get(i);
+        return out;
+    }
+
+    // The spec bundled next to this class
+    public static synchronized FactorSpec builtIn() {
+        if (builtIn == null) {
+            try (InputStream in = FactorSpec.class.getResourceAsStream(RESOURCE)) {
+                if (in == null) throw new IllegalStateException("Missing resource simulator/" + RESOURCE);
+                builtIn = parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return builtIn;
+    }
+
+    // ============================================
+    // ACCESSORS
+    // ============================================
+
+    double scale() {
+        return scale;
+    }
+
+    public int parameterCount() {
+        return paramKeys.length;
+    }
+
+    // -1 if the spec has no such parameter
+    public int indexOf(String key) {
+        Integer i = paramIndex.get(key);
+        return i == null ? -1 : i;
+    }
+
+    public String key(int param) {
+        return paramKeys[param];
+    }
+
+    public String label(int param) {
+        return paramLabels[param];
+    }
+
+    public boolean isWeight(int param) {
+        return paramIsWeight[param];
+    }
+
+    public double defaultValue(int param) {
+        return paramDefaults[param];
+    }
+
+    public double min(int param) {
+        return paramMins[param];
+    }
+
+    public double max(int param) {
+        return paramMaxs[param];
+    }
+
+    public double[] defaults() {
+        return paramDefaults.clone();
+    }
+
+    int factorCount() {
+        return factorNames.length;
+    }
+
+    String factorName(int factor) {
+        return factorNames[factor];
+    }
+
+    // -1 if the spec has no such factor
+    int indexOfFactor(String name) {
+        for (int f = 0; f < factorNames.length; f++) {
+            if (factorNames[f].equals(name)) return f;
+        }
+        return -1;
+    }
+
+    boolean scaled(int factor) {
+        return factorScaled[factor];
+    }
+
+    // false when the effect is the same for every year (lets callers evaluate it once)
+    boolean dependsOnYear(int factor) {
+        for (int t = termStart[factor]; t < termStart[factor + 1]; t++) {
+            if (termKind[t] == SERIES) return true;
+        }
+        return false;
+    }
+
+    // Bitmask over parameter indices the factor reads (its weight and multipliers)
+    long dependencies(int factor) {
+        long mask = factorWeight[factor] < 0 ? 0 : 1L << factorWeight[factor];
+        for (int t = termStart[factor]; t < termStart[factor + 1]; t++) {
+            if (termMultiplier[t] >= 0) mask |= 1L << termMultiplier[t];
+        }
+        return mask;
+    }
+
+    // ============================================
+    // EVALUATION
+    // ============================================
+
+    double effect(int factor, double[] params, HistoricalData data, int year) {
+        double sum = 0;
+        for (int t = termStart[factor]; t < termStart[factor + 1]; t++) {
+            sum += coefficient(t, params, 0) * termValue(t, data, year);
+        }
+        int w = factorWeight[factor];
+        return w < 0 ? sum : sum * params[w];
+    }
+
+    // Series value, growth or 1 for a constant
+    double termValue(int term, HistoricalData data, int year) {
+        switch (termKind[term]) {
+            case SERIES:
+                return data.value(termSeries[term], year);
+            case GROWTH:
+                double from = data.value(termSeries[term], termFrom[term]);
+                return (data.value(termSeries[term], termTo[term]) - from) / from;
+            default:
+                return 1.0;
+        }
+    }
+
+    // Coefficient x multiplier for one parameter vector at params[offset ..]
+    double coefficient(int term, double[] params, int offset) {
+        int m = termMultiplier[term];
+        return m < 0 ? termCoef[term] : termCoef[term] * params[offset + m];
+    }
+
+    // ... also times the factor's weight
+    double weightedCoefficient(int term, int factor, double[] params, int offset) {
+        int w = factorWeight[factor];
+        double c = coefficient(term, params, offset);
+        return w < 0 ? c : c * params[offset + w];
+    }
+
+    int termStart(int factor) {
+        return termStart[factor];
+    }
+
+    int termEnd(int factor) {
+        return termStart[factor + 1];
+    }
+
+    int termKind(int term) {
+        return termKind[term];
+    }
+
+    HistoricalData.Series termSeries(int term) {
+        return termSeries[term];
+    }
+
+    int termFactor(int term) {
+        return termFactor[term];
+    }
+
+    // Offset of the term's series in HistoricalData.table (its TABLE_FIRST_YEAR slot)
+    int termRow(int term) {
+        return termRow[term];
+    }
+
+    // The arrays below are shared; callers must not write to them
+    int[] scaledSeriesTerms() {
+        return scaledSeriesTerms;
+    }
+
+    int[] adjustmentSeriesTerms() {
+        return adjustmentSeriesTerms;
+    }
+
+    int[] invariantTerms() {
+        return invariantTerms;
+    }
+
+    double termCoefficient(int term) {
+        return termCoef[term];
+    }
+
+    // Parameter index, -1 = none
+    int termMultiplier(int term) {
+        return termMultiplier[term];
+    }
+
+    // Parameter index, -1 = unweighted
+    int weightIndex(int factor) {
+        return factorWeight[factor];
+    }
+
+    int feedbackCount() {
+        return feedbackFactor.length;
+    }
+
+    int feedbackFactor(int loop) {
+        return feedbackFactor[loop];
+    }
+
+    double feedbackGain(int loop) {
+        return feedbackGain[loop];
+    }
+
+    double feedbackYears(int loop) {
+        return feedbackYears[loop];
+    }
+
+    // ============================================
+    // PARSING
+    // ============================================
+
+    public static FactorSpec parse(Reader reader) throws IOException {
+        Builder b = new Builder();
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            List<String> tokens = tokenize(line);
+            if (tokens.isEmpty()) continue;
+            try {
+                b.add(tokens);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(RESOURCE + " line " + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+        if (b.factorNames.isEmpty()) throw new IllegalArgumentException("Factor spec declares no factors");
+        return new FactorSpec(b);
+    }
+
+    // Whitespace-separated, "double quoted" tokens may contain spaces, # starts a comment
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (c == '#') {
+                break;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = line.indexOf('"', i + 1);
+                if (end < 0) throw new IllegalArgumentException("unterminated string");
+                tokens.add(line.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) end++;
+                tokens.add(line.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    // "2.5/100", "0.75*0.5", "-0.08"
+    static double number(String token) {
+        double value = 0;
+        char op = 0;
+        int start = 0;
+        for (int i = 1; i <= token.length(); i++) {
+            if (i == token.length() || token.charAt(i) == '*' || token.charAt(i) == '/') {
+                double v = Double.parseDouble(token.substring(start, i));
+                value = op == 0 ? v : op == '*' ? value * v : value / v;
+                if (i < token.length()) op = token.charAt(i);
+                start = i + 1;
+            }
+        }
+        return value;
+    }
+
+    private static final class Builder {
+        double scale = 1.0;
+        final List<String> paramKeys = new ArrayList<>();
+        final List<String> paramLabels = new ArrayList<>();
+        final List<Boolean> paramIsWeight = new ArrayList<>();
+        final List<double[]> paramRanges = new ArrayList<>();  // default, min, max
+        final Map<String, Integer> params = new HashMap<>();
+
+        final List<String> factorNames = new ArrayList<>();
+        final List<Integer> factorWeight = new ArrayList<>();
+        final List<Boolean> factorScaled = new ArrayList<>();
+        final List<Integer> factorTermStart = new ArrayList<>();
+
+        final List<Integer> termKind = new ArrayList<>();
+        final List<HistoricalData.Series> termSeries = new ArrayList<>();
+        final List<Integer> termFrom = new ArrayList<>();
+        final List<Integer> termTo = new ArrayList<>();
+        final List<Double> termCoef = new ArrayList<>();
+        final List<Integer> termMultiplier = new ArrayList<>();
+
+        final List<Integer> feedbackFactor = new ArrayList<>();
+        final List<Double> feedbackGain = new ArrayList<>();
+        final List<Double> feedbackYears = new ArrayList<>();
+
+        void add(List<String> t) {
+            switch (t.get(0)) {
+                case "scale":
+                    expect(t, 2, 2);
+                    scale = number(t.get(1));
+                    break;
+                case "parameter":
+                    expect(t, 7, 7);
+                    if (params.containsKey(t.get(1))) throw new IllegalArgumentException("duplicate parameter " + t.get(1));
+                    if (paramKeys.size() == MAX_PARAMETERS) {
+                        throw new IllegalArgumentException("more than " + MAX_PARAMETERS + " parameters");
+                    }
+                    if (!t.get(2).equals("weight") && !t.get(2).equals("multiplier")) {
+                        throw new IllegalArgumentException("parameter kind must be weight or multiplier");
+                    }
+                    double def = number(t.get(3)), min = number(t.get(4)), max = number(t.get(5));
+                    if (!(min <= def && def <= max)) throw new IllegalArgumentException("default outside [min, max]");
+                    params.put(t.get(1), paramKeys.size());
+                    paramKeys.add(t.get(1));
+                    paramIsWeight.add(t.get(2).equals("weight"));
+                    paramRanges.add(new double[]{def, min, max});
+                    paramLabels.add(t.get(6));
+                    break;
+                case "factor":
+                    expect(t, 2, 4);
+                    if (factorNames.contains(t.get(1))) throw new IllegalArgumentException("duplicate factor " + t.get(1));
+                    int weight = -1;
+                    boolean scaled = true;
+                    for (String option : t.subList(2, t.size())) {
+                        if (option.startsWith("weight=")) weight = parameter(option.substring(7));
+                        else if (option.equals("unscaled")) scaled = false;
+                        else throw new IllegalArgumentException("unknown factor option " + option);
+                    }
+                    factorNames.add(t.get(1));
+                    factorWeight.add(weight);
+                    factorScaled.add(scaled);
+                    factorTermStart.add(termKind.size());
+                    break;
+                case "term":
+                    if (factorNames.isEmpty()) throw new IllegalArgumentException("term before any factor");
+                    expect(t, 3, 7);
+                    int next;
+                    switch (t.get(1)) {
+                        case "series":
+                            termKind.add(SERIES);
+                            termSeries.add(series(t.get(2)));
+                            termFrom.add(0);
+                            termTo.add(0);
+                            next = 3;
+                            break;
+                        case "growth":
+                            termKind.add(GROWTH);
+                            termSeries.add(series(t.get(2)));
+                            termFrom.add(Integer.parseInt(t.get(3)));
+                            termTo.add(Integer.parseInt(t.get(4)));
+                            next = 5;
+                            break;
+                        case "const":
+                            termKind.add(CONST);
+                            termSeries.add(null);
+                            termFrom.add(0);
+                            termTo.add(0);
+                            next = 2;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("term kind must be series, growth or const");
+                    }
+                    if (t.size() < next + 1 || t.size() > next + 2) throw new IllegalArgumentException("malformed term");
+                    termCoef.add(number(t.get(next)));
+                    termMultiplier.add(t.size() == next + 2 ? parameter(t.get(next + 1)) : -1);
+                    break;
+                case "feedback":
+                    expect(t, 4, 4);
+                    int factor = factorNames.indexOf(t.get(1));
+                    if (factor < 0) throw new IllegalArgumentException("undeclared factor " + t.get(1));
+                    double years = number(t.get(3));
+                    if (!(years > 0)) throw new IllegalArgumentException("feedback time constant must be positive");
+                    feedbackFactor.add(factor);
+                    feedbackGain.add(number(t.get(2)));
+                    feedbackYears.add(years);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown directive " + t.get(0));
+            }
+        }
+
+        private int parameter(String key) {
+            Integer i = params.get(key);
+            if (i == null) throw new IllegalArgumentException("undeclared parameter " + key);
+            return i;
+        }
+
+        private static HistoricalData.Series series(String key) {
+            HistoricalData.Series s = HistoricalData.Series.forKey(key);
+            if (s == null) throw new IllegalArgumentException("unknown series " + key);
+            return s;
+        }
+
+        private static void expect(List<String> t, int min, int max) {
+            if (t.size() < min || t.size() > max) throw new IllegalArgumentException("malformed " + t.get(0));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package simulator;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Historical input series as piecewise-linear knots, pre-evaluated into a per-year
+ * lookup table.
+ */
+public final class HistoricalData {
+    // Series handles, resolved once. Each series is a list of (year, value) knots:
+    // values between knots are interpolated linearly and the first/last segment is
+    // extended beyond the ends (so two knots behave exactly like the old 1980/2024 lerp).
+    public enum Series {
+        HS_GRADUATION_FEMALE("hsGraduation.female", 1980, 73, 2024, 92),
+        HS_GRADUATION_MALE("hsGraduation.male", 1980, 69, 2024, 85),
+        WAGE_PREMIUM_FEMALE("wagePremium.female", 1980, 30, 2024, 75),
+        WAGE_PREMIUM_MALE("wagePremium.male", 1980, 45, 2024, 55),
+        JOBS_HEALTHCARE("jobGrowth.healthcare", 1980, 10.2, 2024, 23.4),
+        JOBS_STEM("jobGrowth.stem", 1980, 7.0, 2024, 10.78),
+        JOBS_MANUFACTURING("jobGrowth.manufacturing", 1980, 19.3, 2024, 13.0),
+        JOBS_CONSTRUCTION("jobGrowth.construction", 1980, 4.5, 2024, 8.1),
+        JOBS_NON_COLLEGE_MALE("jobGrowth.nonCollegeMale", 1980, 23.8, 2024, 21.1),  // Mfg + Const combined
+        FEMALE_LIBERAL_SHARE("political.femaleLiberalShare", 1980, 20, 2024, 44),
+        // Observed female share of total fall enrollment (approx., NCES Digest table 303.10).
+        // Only the knot years are observations; used to calibrate and check the model.
+        ENROLLMENT_FEMALE_SHARE("enrollment.femaleShare",
+                1980, 51.4, 1990, 54.5, 2000, 56.1, 2010, 57.0, 2020, 58.0, 2024, 58.4);
+
+        final String key;
+        final double[] knots;  // year0, value0, year1, value1, ...
+
+        Series(String key, double... knots) {
+            this.key = key;
+            this.knots = knots;
+        }
+
+        private static final Map<String, Series> BY_KEY = new HashMap<>();
+        static {
+            for (Series s : values()) BY_KEY.put(s.key, s);
+        }
+
+        static Series forKey(String key) {
+            return BY_KEY.get(key);
+        }
+    }
+
+    // Per-year lookup table covering every year the UI or batch runs can ask for
+    static final int TABLE_FIRST_YEAR = 1900;
+    static final int TABLE_LAST_YEAR = 2600;
+    static final int TABLE_SPAN = TABLE_LAST_YEAR - TABLE_FIRST_YEAR + 1;
+
+    private final double[][] knotYears = new double[Series.values().length][];
+    private final double[][] knotValues = new double[Series.values().length][];
+    final double[] table = new double[Series.values().length * TABLE_SPAN];
+    // Bumped on every series change, so holders of derived results can tell they are stale
+    private volatile int version;
+
+    public HistoricalData() {
+        for (Series s : Series.values()) {
+            double[] years = new double[s.knots.length / 2];
+            double[] vals = new double[s.knots.length / 2];
+            for (int i = 0; i < years.length; i++) {
+                years[i] = s.knots[2 * i];
+                vals[i] = s.knots[2 * i + 1];
+            }
+            setKnots(s, years, vals);
+        }
+    }
+
+    // Independent copy of other (knot arrays are shared; they are never mutated in place)
+    public HistoricalData(HistoricalData other) {
+        for (Series s : Series.values()) copyFrom(other, s);
+    }
+
+    // Replace a series with a multi-point record (years strictly increasing, >= 2 points)
+    public void setKnots(Series s, double[] years, double[] values) {
+        checkKnots(s, years, values);
+        useKnots(s, years.clone(), values.clone());
+    }
+
+    static void checkKnots(Series s, double[] years, double[] values) {
+        if (years.length < 2 || years.length != values.length) {
+            throw new IllegalArgumentException("Series " + s.key + " needs at least two matching knots");
+        }
+        for (int i = 1; i < years.length; i++) {
+            if (years[i] <= years[i - 1]) {
+                throw new IllegalArgumentException("Knot years for " + s.key + " must be increasing");
+            }
+        }
+    }
+
+    // setKnots without the checks or copies, for knots validated earlier and never mutated
+    void useKnots(Series s, double[] xs, double[] ys) {
+        int id = s.ordinal();
+        knotYears[id] = xs;
+        knotValues[id] = ys;
+        version++;
+        // Same arithmetic as evaluate(), but one sweep over the segments instead of a search per year
+        int base = id * TABLE_SPAN;
+        int seg = 0;
+        for (int i = 0; i < TABLE_SPAN; i++) {
+            double year = TABLE_FIRST_YEAR + i;
+            while (seg < xs.length - 2 && year > xs[seg + 1]) {
+                seg++;
+            }
+            double t = (year - xs[seg]) / (xs[seg + 1] - xs[seg]);
+            table[base + i] = ys[seg] + t * (ys[seg + 1] - ys[seg]);
+        }
+    }
+
+    // Resets one series to other's (knot arrays are never mutated in place, so they are shared)
+    void copyFrom(HistoricalData other, Series s) {
+        int id = s.ordinal();
+        knotYears[id] = other.knotYears[id];
+        knotValues[id] = other.knotValues[id];
+        System.arraycopy(other.table, id * TABLE_SPAN, table, id * TABLE_SPAN, TABLE_SPAN);
+        version++;
+    }
+
+    int version() {
+        return version;
+    }
+
+    public double value(Series s, int year) {
+        int offset = year - TABLE_FIRST_YEAR;
+        if (offset >= 0 && offset < TABLE_SPAN) {
+            return table[s.ordinal() * TABLE_SPAN + offset];
+        }
+        return evaluate(s.ordinal(), year);
+    }
+
+    // Replace the built-in endpoints with annual series from a columnar dataset.
+    // Looks up "<series key><suffix>", e.g. suffix "/US/all" -> "hsGraduation.female/US/all";
+    // missing series keep their defaults and NaN (missing) years are skipped.
+    public int load(ColumnarDataset dataset, String suffix) {
+        int loaded = 0;
+        for (Series s : Series.values()) {
+            double[][] knots = readKnots(dataset, s.key + suffix, 2);
+            if (knots == null) continue;
+            setKnots(s, knots[0], knots[1]);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    // {years, values} of a dataset series without its NaN years; null if absent or under minPoints
+    static double[][] readKnots(ColumnarDataset dataset, String key, int minPoints) {
+        ColumnarDataset.Entry e = dataset.entry(key);
+        if (e == null) return null;
+        DoubleBuffer column = dataset.series(e.key);
+        double[] years = new double[e.count];
+        double[] vals = new double[e.count];
+        int n = 0;
+        for (int i = 0; i < e.count; i++) {
+            double v = column.get(i);
+            if (Double.isNaN(v)) continue;
+            years[n] = e.firstYear + i;
+            vals[n++] = v;
+        }
+        if (n < Math.max(1, minPoints)) return null;
+        return new double[][] {Arrays.copyOf(years, n), Arrays.copyOf(vals, n)};
+    }
+
+    public double[] knotYears(Series s) {
+        return knotYears[s.ordinal()].clone();
+    }
+
+    public double[] knotValues(Series s) {
+        return knotValues[s.ordinal()].clone();
+    }
+
+    // Old string-keyed lookup, kept for callers outside the hot path
+    double interpolate(String factor, String subType, int year) {
+        Series s = Series.forKey(factor + "." + subType);
+        if (s == null) return 0;
+        return value(s, year);
+    }
+
+    private double evaluate(int id, double year) {
+        double[] xs = knotYears[id];
+        double[] ys = knotValues[id];
+        int seg = 0;
+        while (seg < xs.length - 2 && year > xs[seg + 1]) {
+            seg++;
+        }
+        double t = (year - xs[seg]) / (xs[seg + 1] - xs[seg]);
+        return ys[seg] + t * (ys[seg + 1] - ys[seg]);
+    }
+}
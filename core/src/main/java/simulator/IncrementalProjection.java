@@ -0,0 +1,115 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Projection that caches every factor's per-year effect and only recomputes the
+ * factors whose parameters changed since the last call.
+ *
+ * Each term is one factor of the model's FactorSpec and knows which parameters it
+ * reads (FactorSpec.dependencies). Moving one slider therefore recomputes a single term
+ * and re-sums the cached totals. Year-invariant factors
+ * (FactorSpec.dependsOnYear() == false) are evaluated once per change instead of per year.
+ *
+ * Not thread-safe: owned by whichever thread drives the model (the scheduler worker).
+ */
+class IncrementalProjection {
+
+    private final EnrollmentModel model;
+    private final FactorSpec spec;
+    private final int startYear;
+    private final long[] termDeps;      // per factor: bitmask over parameter indices
+
+    private final double[] lastParams;
+    private boolean primed;
+    private double[][] effects = new double[0][];  // [term][yearIndex]
+    private final int[] validYears;                // per term: effects[t][0 .. validYears[t]) are current
+
+    // Counts terms x years actually evaluated, for checking how much work a change cost
+    private long termEvaluations;
+
+    IncrementalProjection(EnrollmentModel model, int startYear) {
+        this.model = model;
+        this.spec = model.spec;
+        this.startYear = startYear;
+        this.lastParams = new double[spec.parameterCount()];
+
+        termDeps = new long[spec.factorCount()];
+        validYears = new int[spec.factorCount()];
+        for (int t = 0; t < termDeps.length; t++) {
+            termDeps[t] = spec.dependencies(t);
+        }
+    }
+
+    // Forget everything, e.g. after the model's HistoricalData was replaced
+    void invalidate() {
+        primed = false;
+        Arrays.fill(validYears, 0);
+    }
+
+    long termEvaluations() {
+        return termEvaluations;
+    }
+
+    List<EnrollmentResult> project(double[] params, int yearsAhead) {
+        int years = yearsAhead + 1;
+
+        long dirty = 0;
+        for (int i = 0; i < lastParams.length; i++) {
+            if (!primed || Double.doubleToLongBits(params[i]) != Double.doubleToLongBits(lastParams[i])) {
+                dirty |= 1L << i;
+                model.setParameter(i, params[i]);
+                lastParams[i] = params[i];
+            }
+        }
+
+        if (effects.length == 0 || effects[0].length < years) {
+            int capacity = effects.length == 0 ? years : Math.max(years, 2 * effects[0].length);
+            double[][] grown = new double[termDeps.length][capacity];
+            for (int t = 0; t < effects.length; t++) {
+                System.arraycopy(effects[t], 0, grown[t], 0, validYears[t]);
+            }
+            effects = grown;
+        }
+
+        for (int t = 0; t < termDeps.length; t++) {
+            if (!primed || (termDeps[t] & dirty) != 0) {
+                fill(t, 0, years);
+                validYears[t] = years;
+            } else if (years > validYears[t]) {
+                fill(t, validYears[t], years);  // horizon grew: only the new years
+                validYears[t] = years;
+            }
+        }
+        primed = true;
+
+        // Re-sum the cached terms
+        List<EnrollmentResult> results = new ArrayList<>(years);
+        double scale = spec.scale();
+        for (int y = 0; y < years; y++) {
+            int year = startYear + y;
+            double factorGap = 0;
+            double adjustment = 0;
+            for (int t = 0; t < termDeps.length; t++) {
+                if (spec.scaled(t)) factorGap += effects[t][y];
+                else adjustment += effects[t][y];
+            }
+            double totalGap = factorGap * scale * EnrollmentModel.yearFactor(year) + adjustment;
+            results.add(model.toResult(year, totalGap));
+        }
+        return results;
+    }
+
+    private void fill(int term, int from, int to) {
+        double[] row = effects[term];
+        if (!spec.dependsOnYear(term)) {
+            Arrays.fill(row, from, to, spec.effect(term, model.params, model.historicalData, startYear));
+            termEvaluations++;
+        } else {
+            for (int y = from; y < to; y++) row[y] = spec.effect(term, model.params, model.historicalData, startYear + y);
+            termEvaluations += to - from;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package simulator;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson 2013): keeps the first and
+ * last point and, from each of threshold - 2 equal buckets in between, the point that
+ * forms the largest triangle with the previously kept point and the next bucket's mean.
+ * Peaks and troughs survive, so a line drawn through the kept points looks like the
+ * full series at the target pixel width.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    // Downsamples points [from, to) of (x, y), x ascending, to at most threshold points.
+    // Writes the kept indices (ascending) to out, which needs room for
+    // min(threshold, to - from) entries, and returns how many were written.
+    public static int downsample(double[] x, double[] y, int from, int to, int threshold, int[] out) {
+        int n = to - from;
+        if (n <= 0 || threshold <= 0) return 0;
+        if (threshold >= n) {
+            for (int i = 0; i < n; i++) out[i] = from + i;
+            return n;
+        }
+        if (threshold < 3) {
+            out[0] = from;
+            if (threshold == 2) out[1] = to - 1;
+            return threshold;
+        }
+
+        double every = (double) (n - 2) / (threshold - 2);
+        int kept = 0;
+        int a = from;
+        out[kept++] = a;
+
+        for (int b = 0; b < threshold - 2; b++) {
+            // Mean of the next bucket (the last point for the final bucket)
+            int nextStart = from + (int) ((b + 1) * every) + 1;
+            int nextEnd = Math.min(from + (int) ((b + 2) * every) + 1, to);
+            if (nextStart >= nextEnd) nextStart = nextEnd - 1;
+            double avgX = 0, avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int len = nextEnd - nextStart;
+            avgX /= len;
+            avgY /= len;
+
+            // Point of this bucket with the largest triangle against a and the mean
+            int start = from + (int) (b * every) + 1;
+            int end = from + (int) ((b + 1) * every) + 1;
+            double ax = x[a], ay = y[a];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - x[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            out[kept++] = chosen;
+            a = chosen;
+        }
+
+        out[kept++] = to - 1;
+        return kept;
+    }
+}
@@ -0,0 +1,169 @@
+package simulator;
+
+import java.lang.management.ManagementFactory;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process latency and allocation metrics for the update path, read by the metrics
+ * overlay.
+ *
+ * Recording is off until enabled; while off every record call is a single volatile
+ * read. Histograms are log-linear (16 linear sub-buckets per power of two, so values
+ * are reported to within ~6%) over fixed atomic arrays: recording never allocates or
+ * locks.
+ */
+public class MetricsRegistry {
+
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = SUB + (64 - SUB_BITS) * SUB;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+
+        void record(long value) {
+            counts.incrementAndGet(index(Math.max(0, value)));
+            total.increment();
+        }
+
+        long count() {
+            return total.sum();
+        }
+
+        // Midpoint of the bucket holding the q-quantile; 0 if nothing was recorded
+        long percentile(double q) {
+            long n = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) n += snapshot[i] = counts.get(i);
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return i + 1 < BUCKETS ? (lowerBound(i) + lowerBound(i + 1) - 1) / 2 : lowerBound(i);
+                }
+            }
+            return lowerBound(BUCKETS - 1);
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+            total.reset();
+        }
+
+        static int index(long v) {
+            if (v < SUB) return (int) v;
+            int e = 63 - Long.numberOfLeadingZeros(v);
+            return SUB + (e - SUB_BITS) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+        }
+
+        static long lowerBound(int index) {
+            if (index < SUB) return index;
+            int e = (index - SUB) / SUB + SUB_BITS;
+            long sub = (index - SUB) % SUB;
+            return (SUB + sub) << (e - SUB_BITS);
+        }
+    }
+
+    // HotSpot's per-thread allocation counter; absent on other VMs
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    final Histogram recomputeNanos = new Histogram();
+    final Histogram allocatedBytes = new Histogram();
+    final Histogram chartRefreshNanos = new Histogram();
+    private final FactorSpec spec;
+    private final LongAdder[] recomputes;  // per spec parameter
+    private final LongAdder horizonRecomputes = new LongAdder();
+    private volatile boolean enabled;
+
+    MetricsRegistry(FactorSpec spec) {
+        this.spec = spec;
+        this.recomputes = new LongAdder[spec.parameterCount()];
+        for (int i = 0; i < recomputes.length; i++) recomputes[i] = new LongAdder();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 if the VM can't tell
+    static long threadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    // changed: bit i set when parameter i differs from the previous snapshot
+    void recordRecompute(long nanos, long allocated, BitSet changed, boolean horizonChanged) {
+        if (!enabled) return;
+        recomputeNanos.record(nanos);
+        if (allocated >= 0) allocatedBytes.record(allocated);
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            recomputes[i].increment();
+        }
+        if (horizonChanged) horizonRecomputes.increment();
+    }
+
+    public void recordChartRefresh(long nanos) {
+        if (enabled) chartRefreshNanos.record(nanos);
+    }
+
+    long recomputes(int param) {
+        return recomputes[param].sum();
+    }
+
+    long horizonRecomputes() {
+        return horizonRecomputes.sum();
+    }
+
+    public void reset() {
+        recomputeNanos.reset();
+        allocatedBytes.reset();
+        chartRefreshNanos.reset();
+        for (LongAdder a : recomputes) a.reset();
+        horizonRecomputes.reset();
+    }
+
+    // Multi-line summary for the overlay
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Recompute  p50 %s  p99 %s  (n=%d)%n",
+                millis(recomputeNanos.percentile(0.50)), millis(recomputeNanos.percentile(0.99)), recomputeNanos.count()));
+        sb.append(String.format("Chart      p50 %s  p99 %s%n",
+                millis(chartRefreshNanos.percentile(0.50)), millis(chartRefreshNanos.percentile(0.99))));
+        if (THREADS != null) {
+            sb.append(String.format("Alloc/update  p50 %s  p99 %s%n",
+                    kilobytes(allocatedBytes.percentile(0.50)), kilobytes(allocatedBytes.percentile(0.99))));
+        }
+        sb.append("Recomputes by slider:");
+        for (int i = 0; i < recomputes.length; i++) {
+            long n = recomputes(i);
+            if (n > 0) sb.append(String.format("%n  %-22s %d", spec.key(i), n));
+        }
+        if (horizonRecomputes() > 0) sb.append(String.format("%n  %-22s %d", "years", horizonRecomputes()));
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    private static String kilobytes(long bytes) {
+        return String.format("%.1f KB", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,49 @@
+package simulator;
+
+/**
+ * Typed handles for parameters of the built-in factor spec (factors.spec), so headless
+ * tools and benchmarks can name individual sliders without spelling out string keys.
+ *
+ * The spec is the source of truth: vectors are sized with FactorSpec.parameterCount()
+ * and iterated by spec index, and a handle is only resolved (by key) when it is used.
+ * A handle whose key a spec does not declare fails at that point, not at class
+ * initialization; parameters added to the spec need no constant here.
+ */
+public enum Parameter {
+    // Weights
+    HS_PERFORMANCE_WEIGHT("hsPerformance"),
+    WAGE_PREMIUM_WEIGHT("wagePremium"),
+    FIELD_JOB_WEIGHT("fieldJobAvailability"),
+    CULTURAL_POLITICAL_WEIGHT("culturalPolitical"),
+
+    // Multipliers
+    HS_GRAD_GAP("hsGradGap"),
+    WAGE_PREMIUM_FEMALE("wagePremiumFemale"),
+    WAGE_PREMIUM_MALE("wagePremiumMale"),
+    HEALTHCARE_GROWTH("healthcareGrowth"),
+    STEM_GROWTH("stemGrowth"),
+    NON_COLLEGE_MALE_JOBS("nonCollegeMaleJobs"),
+    CULTURAL_SHIFT("culturalShift");
+
+    public final String key;
+
+    Parameter(String key) {
+        this.key = key;
+    }
+
+    // Index of this parameter in spec's flat layout
+    public int index(FactorSpec spec) {
+        int index = spec.indexOf(key);
+        if (index < 0) throw new IllegalArgumentException("Factor spec does not declare " + key);
+        return index;
+    }
+
+    // ... in the built-in spec
+    public int index() {
+        return index(FactorSpec.builtIn());
+    }
+
+    public void apply(EnrollmentModel model, double value) {
+        model.setParameter(index(model.spec), value);
+    }
+}
@@ -0,0 +1,97 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Immutable parameter vector in a FactorSpec's flat layout. Values are checked against
+ * the spec's ranges when the snapshot is made and never change afterwards, so one
+ * snapshot can be read by any number of threads; an edit makes a new snapshot.
+ */
+public final class ParameterSnapshot {
+
+    private final FactorSpec spec;
+    final double[] values;  // never written after construction
+    private final int hash;
+
+    private ParameterSnapshot(FactorSpec spec, double[] values) {
+        this.spec = spec;
+        this.values = values;
+        this.hash = Arrays.hashCode(values);
+    }
+
+    public static ParameterSnapshot defaults(FactorSpec spec) {
+        return new ParameterSnapshot(spec, spec.defaults());
+    }
+
+    // Copies values; each must lie in its parameter's [min, max]
+    public static ParameterSnapshot of(FactorSpec spec, double[] values) {
+        if (values.length != spec.parameterCount()) {
+            throw new IllegalArgumentException("Expected " + spec.parameterCount() + " parameters, got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) check(spec, i, values[i]);
+        return new ParameterSnapshot(spec, values.clone());
+    }
+
+    private static void check(FactorSpec spec, int index, double value) {
+        if (!(value >= spec.min(index) && value <= spec.max(index))) {
+            throw new IllegalArgumentException(spec.key(index) + " must be in [" + spec.min(index) + ", "
+                    + spec.max(index) + "], got " + value);
+        }
+    }
+
+    public FactorSpec spec() {
+        return spec;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    public double get(String key) {
+        int index = spec.indexOf(key);
+        if (index < 0) throw new IllegalArgumentException("Unknown parameter: " + key);
+        return values[index];
+    }
+
+    // This snapshot with one value replaced (this one if the value is unchanged)
+    public ParameterSnapshot with(int index, double value) {
+        if (values[index] == value) return this;
+        check(spec, index, value);
+        double[] copy = values.clone();
+        copy[index] = value;
+        return new ParameterSnapshot(spec, copy);
+    }
+
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    public void copyTo(double[] dst, int offset) {
+        System.arraycopy(values, 0, dst, offset, values.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ParameterSnapshot other && spec == other.spec
+                && hash == other.hash && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(spec.key(i)).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
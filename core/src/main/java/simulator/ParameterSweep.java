@@ -0,0 +1,373 @@
+package simulator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parameter sweeps over a subset of the weights/multipliers and Sobol (Saltelli)
+ * global sensitivity indices of the projected gap.
+ *
+ * Designs are generated in the unit cube (row-major, n x d) and mapped onto each
+ * swept parameter's [lo, hi] range; parameters that are not swept stay at base.
+ * Results go into flat structure-of-arrays buffers indexed [yearIndex * n + point].
+ */
+class ParameterSweep {
+
+    final FactorSpec spec;
+    final String[] factors;  // swept parameter keys
+    final int[] indices;     // ... and their spec indices
+    final double[] lo, hi;
+    final double[] base;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int leafSize = 1024;
+
+    ParameterSweep(FactorSpec spec, String... factors) {
+        this.spec = spec;
+        this.factors = factors.clone();
+        this.indices = new int[factors.length];
+        this.lo = new double[factors.length];
+        this.hi = new double[factors.length];
+        this.base = spec.defaults();
+        for (int j = 0; j < factors.length; j++) {
+            int i = spec.indexOf(factors[j]);
+            if (i < 0) throw new IllegalArgumentException("Factor spec does not declare " + factors[j]);
+            indices[j] = i;
+            lo[j] = spec.min(i);
+            hi[j] = spec.max(i);
+        }
+    }
+
+    // The factors we usually ask about: the four weights plus non-college male jobs
+    static ParameterSweep gapDrivers() {
+        return new ParameterSweep(FactorSpec.builtIn(), "hsPerformance", "wagePremium",
+                "fieldJobAvailability", "culturalPolitical", "nonCollegeMaleJobs");
+    }
+
+    ParameterSweep range(String key, double min, double max) {
+        for (int j = 0; j < factors.length; j++) {
+            if (factors[j].equals(key)) {
+                lo[j] = min;
+                hi[j] = max;
+                return this;
+            }
+        }
+        throw new IllegalArgumentException(key + " is not part of this sweep");
+    }
+
+    ParameterSweep withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    int dimensions() {
+        return factors.length;
+    }
+
+    // ============================================
+    // DESIGNS (unit cube, n x d row-major)
+    // ============================================
+
+    double[] fullFactorial(int levels) {
+        int d = factors.length;
+        long n = 1;
+        for (int j = 0; j < d; j++) n *= levels;
+        if (n * d > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(levels + "^" + d + " grid points is too many");
+        }
+        double[] points = new double[(int) n * d];
+        for (int i = 0; i < n; i++) {
+            int rest = i;
+            for (int j = d - 1; j >= 0; j--) {
+                int level = rest % levels;
+                rest /= levels;
+                points[i * d + j] = levels == 1 ? 0.5 : level / (double) (levels - 1);
+            }
+        }
+        return points;
+    }
+
+    double[] latinHypercube(int n, long seed) {
+        int d = factors.length;
+        double[] points = new double[n * d];
+        SplittableRandom rng = new SplittableRandom(seed);
+        int[] perm = new int[n];
+        for (int j = 0; j < d; j++) {
+            for (int i = 0; i < n; i++) perm[i] = i;
+            for (int i = n - 1; i > 0; i--) {
+                int k = rng.nextInt(i + 1);
+                int t = perm[i]; perm[i] = perm[k]; perm[k] = t;
+            }
+            for (int i = 0; i < n; i++) {
+                points[i * d + j] = (perm[i] + rng.nextDouble()) / n;
+            }
+        }
+        return points;
+    }
+
+    double[] sobol(int n) {
+        int d = factors.length;
+        double[] points = new double[n * d];
+        SobolSequence seq = new SobolSequence(d);
+        for (int i = 0; i < n; i++) seq.point(i + 1, points, i * d);  // skip the all-zero point
+        return points;
+    }
+
+    // ============================================
+    // EVALUATION
+    // ============================================
+
+    static class SweepResult {
+        final int n, years, startYear;
+        final double[] female, male, gap;  // [yearIndex * n + point]
+
+        SweepResult(int n, int years, int startYear) {
+            this.n = n;
+            this.years = years;
+            this.startYear = startYear;
+            female = new double[n * years];
+            male = new double[n * years];
+            gap = new double[n * years];
+        }
+    }
+
+    void toParameters(double[] unitPoints, int point, double[] out) {
+        System.arraycopy(base, 0, out, 0, base.length);
+        int d = factors.length;
+        for (int j = 0; j < d; j++) {
+            double u = unitPoints[point * d + j];
+            out[indices[j]] = lo[j] + u * (hi[j] - lo[j]);
+        }
+    }
+
+    SweepResult evaluate(double[] unitPoints, int yearsAhead) {
+        int n = unitPoints.length / factors.length;
+        int years = yearsAhead + 1;
+        if ((long) n * years > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Sweep of " + n + " points x " + years + " years is too large");
+        }
+        SweepResult result = new SweepResult(n, years, new Simulator().currentYear);
+        pool.invoke(new Chunk(unitPoints, result, new EnrollmentEvaluator(spec, new HistoricalData()), 0, n));
+        return result;
+    }
+
+    private final class Chunk extends RecursiveAction {
+        final double[] unitPoints;
+        final SweepResult out;
+        final EnrollmentEvaluator evaluator;  // stateless, shared by every leaf
+        final int from, to;
+
+        Chunk(double[] unitPoints, SweepResult out, EnrollmentEvaluator evaluator, int from, int to) {
+            this.unitPoints = unitPoints; this.out = out; this.evaluator = evaluator; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Chunk(unitPoints, out, evaluator, from, mid), new Chunk(unitPoints, out, evaluator, mid, to));
+                return;
+            }
+            int count = to - from;
+            int years = out.years;
+            int stride = base.length;
+            double[] params = new double[count * stride];
+            double[] one = new double[stride];
+            for (int i = 0; i < count; i++) {
+                toParameters(unitPoints, from + i, one);
+                System.arraycopy(one, 0, params, i * stride, stride);
+            }
+            double[] female = new double[count * years];
+            double[] male = new double[count * years];
+            double[] gap = new double[count * years];
+            evaluator.evaluateBatch(params, count, out.startYear, years, female, male, gap);
+
+            // Scenario-major batch output -> year-major SoA columns
+            for (int i = 0; i < count; i++) {
+                for (int y = 0; y < years; y++) {
+                    int idx = y * out.n + from + i;
+                    out.female[idx] = female[i * years + y];
+                    out.male[idx] = male[i * years + y];
+                    out.gap[idx] = gap[i * years + y];
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // SOBOL INDICES (Saltelli sampling)
+    // ============================================
+
+    static class SobolIndices {
+        final String[] factors;
+        final int startYear;
+        final double[][] firstOrder;  // [yearIndex][factor]
+        final double[][] totalOrder;
+
+        SobolIndices(String[] factors, int startYear, int years) {
+            this.factors = factors;
+            this.startYear = startYear;
+            firstOrder = new double[years][factors.length];
+            totalOrder = new double[years][factors.length];
+        }
+    }
+
+    // N base samples -> N * (d + 2) model runs; first-order via Saltelli (2010), total via Jansen
+    SobolIndices sobolIndices(int n, int yearsAhead) {
+        return sobolIndices(n, evaluate(saltelliDesign(n), yearsAhead));
+    }
+
+    // Unit-cube rows: A (n rows), B (n rows), then for each factor k, A with column k
+    // taken from B (n rows each); A and B are the two halves of a 2d-dimensional Sobol point
+    double[] saltelliDesign(int n) {
+        int d = factors.length;
+        double[] points = new double[n * (d + 2) * d];
+        SobolSequence seq = new SobolSequence(2 * d);
+        double[] row = new double[2 * d];
+        for (int i = 0; i < n; i++) {
+            seq.point(i + 1, row, 0);
+            for (int j = 0; j < d; j++) {
+                points[i * d + j] = row[j];            // A
+                points[(n + i) * d + j] = row[d + j];  // B
+            }
+            for (int k = 0; k < d; k++) {
+                int ab = (2 + k) * n + i;               // A with column k taken from B
+                for (int j = 0; j < d; j++) {
+                    points[ab * d + j] = j == k ? row[d + j] : row[j];
+                }
+            }
+        }
+        return points;
+    }
+
+    // Indices of the gap from r, a sweep over saltelliDesign(n)
+    SobolIndices sobolIndices(int n, SweepResult r) {
+        int d = factors.length;
+        int rows = n * (d + 2);
+        if (r.n != rows) throw new IllegalArgumentException("Expected a sweep of " + rows + " points, got " + r.n);
+        SobolIndices out = new SobolIndices(factors, r.startYear, r.years);
+        for (int y = 0; y < r.years; y++) {
+            int yBase = y * rows;
+            double sum = 0, sumSq = 0;
+            for (int i = 0; i < 2 * n; i++) {
+                double v = r.gap[yBase + i];
+                sum += v;
+                sumSq += v * v;
+            }
+            double mean = sum / (2 * n);
+            double variance = sumSq / (2 * n) - mean * mean;
+
+            for (int k = 0; k < d; k++) {
+                double first = 0, total = 0;
+                int abBase = yBase + (2 + k) * n;
+                for (int i = 0; i < n; i++) {
+                    double fA = r.gap[yBase + i];
+                    double fB = r.gap[yBase + n + i];
+                    double fAB = r.gap[abBase + i];
+                    first += fB * (fAB - fA);
+                    total += (fA - fAB) * (fA - fAB);
+                }
+                boolean flat = variance <= 1e-12;
+                out.firstOrder[y][k] = flat ? Double.NaN : first / n / variance;
+                out.totalOrder[y][k] = flat ? Double.NaN : total / (2.0 * n) / variance;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Sobol low-discrepancy sequence (Joe & Kuo direction numbers, up to 23 dimensions).
+     * Points are computed directly from the index, so chunks can be generated independently.
+     */
+    static class SobolSequence {
+        // s, a, m_1..m_s for dimensions 2..23 (new-joe-kuo-6.21201)
+        private static final int[][] DIRECTIONS = {
+                {1, 0, 1},
+                {2, 1, 1, 3},
+                {3, 1, 1, 3, 1},
+                {3, 2, 1, 1, 1},
+                {4, 1, 1, 1, 3, 3},
+                {4, 4, 1, 3, 5, 13},
+                {5, 2, 1, 1, 5, 5, 17},
+                {5, 4, 1, 1, 5, 5, 5},
+                {5, 7, 1, 1, 7, 11, 19},
+                {5, 11, 1, 1, 5, 1, 1},
+                {5, 13, 1, 1, 1, 3, 11},
+                {5, 14, 1, 3, 5, 5, 31},
+                {6, 1, 1, 3, 3, 9, 7, 49},
+                {6, 13, 1, 1, 1, 15, 21, 21},
+                {6, 16, 1, 3, 1, 13, 27, 49},
+                {6, 19, 1, 1, 1, 15, 7, 5},
+                {6, 22, 1, 3, 1, 15, 13, 25},
+                {6, 25, 1, 1, 5, 5, 19, 61},
+                {7, 1, 1, 3, 7, 11, 23, 15, 103},
+                {7, 4, 1, 3, 7, 13, 13, 15, 69},
+                {7, 7, 1, 1, 3, 13, 7, 35, 63},
+                {7, 8, 1, 3, 5, 9, 1, 25, 53},
+        };
+        static final int MAX_DIMENSIONS = DIRECTIONS.length + 1;
+        private static final int BITS = 32;
+
+        private final int[][] v;  // [dim][bit]
+
+        SobolSequence(int dims) {
+            if (dims < 1 || dims > MAX_DIMENSIONS) {
+                throw new IllegalArgumentException("Sobol sequence supports 1.." + MAX_DIMENSIONS + " dimensions");
+            }
+            v = new int[dims][BITS];
+            for (int k = 0; k < BITS; k++) v[0][k] = 1 << (BITS - 1 - k);
+            for (int j = 1; j < dims; j++) {
+                int[] dir = DIRECTIONS[j - 1];
+                int s = dir[0], a = dir[1];
+                for (int k = 0; k < BITS; k++) {
+                    if (k < s) {
+                        v[j][k] = dir[2 + k] << (BITS - 1 - k);
+                    } else {
+                        int x = v[j][k - s] ^ (v[j][k - s] >>> s);
+                        for (int t = 1; t < s; t++) {
+                            if (((a >>> (s - 1 - t)) & 1) != 0) x ^= v[j][k - t];
+                        }
+                        v[j][k] = x;
+                    }
+                }
+            }
+        }
+
+        // Writes point #index (gray-code order) into out[offset .. offset + dims)
+        void point(long index, double[] out, int offset) {
+            long gray = index ^ (index >>> 1);
+            for (int j = 0; j < v.length; j++) {
+                int x = 0;
+                long g = gray;
+                for (int k = 0; g != 0 && k < BITS; k++, g >>>= 1) {
+                    if ((g & 1) != 0) x ^= v[j][k];
+                }
+                out[offset + j] = (x & 0xFFFFFFFFL) / 4294967296.0;
+            }
+        }
+    }
+
+    // java simulator.ParameterSweep [baseSamples] [yearsAhead]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 14;
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        ParameterSweep sweep = gapDrivers();
+        long start = System.nanoTime();
+        SobolIndices indices = sweep.sobolIndices(n, years);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+
+        StringBuilder header = new StringBuilder("year");
+        for (String key : indices.factors) header.append(",S1_").append(key).append(",ST_").append(key);
+        System.out.println(header);
+        for (int y = 0; y < indices.firstOrder.length; y++) {
+            StringBuilder sb = new StringBuilder().append(indices.startYear + y);
+            for (int k = 0; k < indices.factors.length; k++) {
+                sb.append(String.format(",%.4f,%.4f", indices.firstOrder[y][k], indices.totalOrder[y][k]));
+            }
+            System.out.println(sb);
+        }
+        System.err.printf("%d model runs in %d ms%n", n * (sweep.dimensions() + 2), ms);
+    }
+}
@@ -0,0 +1,112 @@
+package simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Headless command-line launcher over the simulation core. The default command is a
+ * one-shot projection; the rest dispatch to the existing tool mains.
+ *
+ * <pre>
+ * ripc [project] [yearsAhead] [key=value ...]
+ * ripc ensemble|sweep|calibrate|export|micro|regions|serve|convert [args ...]
+ * </pre>
+ */
+public final class ProjectionCli {
+
+    static final String USAGE = """
+            usage: ripc [project] [yearsAhead] [key=value ...]   one projection as CSV (default)
+                   ripc ensemble [scenarios] [yearsAhead] [seed]
+                   ripc sweep [samples] [yearsAhead]
+                   ripc calibrate [--refine]
+                   ripc export <out.csv|out.ripx> [scenarios] [yearsAhead] [seed] [threads]
+                   ripc micro [agents] [yearsAhead] [seed]
+                   ripc regions <dataset.ripc | regionCount> [yearsAhead] [threads] [--regions]
+                   ripc dynamic [yearsAhead] [annual|quarterly|monthly] [scenarios] [threads] [--no-feedback]
+                   ripc serve [port]
+                   ripc convert <input.csv> <output.ripc>
+            """;
+
+    private ProjectionCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // A leading number or key=value means the default command
+        boolean named = args.length > 0 && !args[0].isEmpty()
+                && !Character.isDigit(args[0].charAt(0)) && args[0].indexOf('=') < 0;
+        String command = named ? args[0] : "project";
+        String[] rest = named ? Arrays.copyOfRange(args, 1, args.length) : args;
+        try {
+            switch (command) {
+                case "project" -> project(rest);
+                case "ensemble" -> EnsembleEngine.main(rest);
+                case "sweep" -> ParameterSweep.main(rest);
+                case "calibrate" -> Calibration.main(rest);
+                case "export" -> ScenarioExporter.main(rest);
+                case "micro" -> CohortMicrosimulation.main(rest);
+                case "regions" -> RegionalProjection.main(rest);
+                case "dynamic" -> DynamicProjection.main(rest);
+                case "serve" -> ProjectionServer.main(rest);
+                case "convert" -> ColumnarDataset.main(rest);
+                case "help", "-h", "--help" -> System.out.print(USAGE);
+                default -> throw new IllegalArgumentException("Unknown command: " + command);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+    }
+
+    // ============================================
+    // ONE-SHOT PROJECTION
+    // ============================================
+
+    // Kept to the spec, the model and a single batch call: no Simulator (START_YEAR is a
+    // compile-time constant), cache, JFR events or Formatter, so a cold JVM loads as few
+    // classes as possible before printing.
+    static void project(String[] args) throws IOException {
+        FactorSpec spec = FactorSpec.builtIn();
+        double[] params = spec.defaults();
+        int yearsAhead = 10;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                yearsAhead = Integer.parseInt(arg);
+                continue;
+            }
+            String key = arg.substring(0, eq);
+            int p = spec.indexOf(key);
+            if (p < 0) throw new IllegalArgumentException("Unknown parameter: " + key);
+            double v = Double.parseDouble(arg.substring(eq + 1));
+            if (v < spec.min(p) || v > spec.max(p)) {
+                throw new IllegalArgumentException(key + " must be in [" + spec.min(p) + ", " + spec.max(p) + "]");
+            }
+            params[p] = v;
+        }
+        if (yearsAhead < 0) throw new IllegalArgumentException("yearsAhead must be >= 0");
+
+        EnrollmentModel model = new EnrollmentModel(spec);
+        int startYear = Simulator.START_YEAR;
+        int m = yearsAhead + 1;
+        double[] female = new double[m], male = new double[m], gap = new double[m];
+        model.calculateBatch(params, 1, startYear, m, female, male, gap);
+
+        ByteBuffer buf = ByteBuffer.allocate(32 + m * 40);
+        byte[] digits = new byte[20];
+        for (byte b : "year,female,male,gap\n".getBytes()) buf.put(b);
+        for (int y = 0; y < m; y++) {
+            ScenarioExporter.putLong(buf, startYear + y, digits);
+            buf.put((byte) ',');
+            ScenarioExporter.putFixed(buf, female[y], 100L, digits);
+            buf.put((byte) ',');
+            ScenarioExporter.putFixed(buf, male[y], 100L, digits);
+            buf.put((byte) ',');
+            ScenarioExporter.putFixed(buf, gap[y], 100L, digits);
+            buf.put((byte) '\n');
+        }
+        System.out.write(buf.array(), 0, buf.position());
+        System.out.flush();
+    }
+}
@@ -0,0 +1,388 @@
+package simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Headless HTTP front end for dashboards: no JavaFX Application is started.
+ *
+ *   POST /projection  {"weights": {"hsPerformance": 0.3, ...},
+ *                      "multipliers": {"nonCollegeMaleJobs": 0.8, ...}, "years": 10}
+ *   GET  /projection?years=10&hsPerformance=0.3&...
+ *   GET  /health
+ *   GET  /stats       scenario cache size and hit/miss/eviction counts
+ *
+ * Keys are the parameter keys of the evaluator's factor spec; anything omitted keeps
+ * its default. Malformed JSON, non-numeric values, unknown keys, values outside a
+ * parameter's range and a years that is not a whole number in [0, MAX_YEARS_AHEAD]
+ * are rejected with 400 and a JSON error body. The response is the same rows as
+ * Simulator.runProjection, streamed as chunked JSON straight from the batch
+ * evaluator's primitive arrays. Repeated scenarios (parameters equal after
+ * ScenarioCache quantization) are served from a bounded LRU cache.
+ *
+ * Each request runs on its own virtual thread. All requests share one EnrollmentModel
+ * through calculateBatch (which only reads it). Memory stays bounded: request bodies
+ * are capped, the horizon is capped, cached results take at most CACHE_BYTES, and at
+ * most maxInFlight projections run at once; anything over that gets 503 instead of
+ * queueing.
+ * Binds to the loopback interface unless another address is given.
+ */
+class ProjectionServer {
+
+    static final int MAX_BODY_BYTES = 16 * 1024;
+    static final int MAX_YEARS_AHEAD = 500;
+    // Entries hold 3 x (years + 1) doubles, ~12 KB at the longest horizon; capacity is
+    // sized so the cache stays within CACHE_BYTES of results even if every entry is that long
+    static final long CACHE_BYTES = 32L << 20;
+    static final int CACHE_CAPACITY = (int) (CACHE_BYTES / (3L * (MAX_YEARS_AHEAD + 1) * Double.BYTES));
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    private final EnrollmentEvaluator evaluator = new EnrollmentEvaluator();
+    private final int startYear = new Simulator().currentYear;
+    private final ScenarioCache<double[]> cache = new ScenarioCache<>(CACHE_CAPACITY);
+
+    ProjectionServer(InetSocketAddress address, int maxInFlight) throws IOException {
+        this.inFlight = new Semaphore(maxInFlight);
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/projection", this::handleProjection);
+        server.createContext("/health", exchange -> respond(exchange, 200, "ok\n"));
+        server.createContext("/stats", exchange -> respond(exchange, 200, statsJson()));
+    }
+
+    static ProjectionServer onLoopback(int port) throws IOException {
+        return new ProjectionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    private void handleProjection(HttpExchange exchange) throws IOException {
+        if (!inFlight.tryAcquire()) {
+            respond(exchange, 503, "{\"error\":\"server busy\"}\n");
+            return;
+        }
+        try {
+            FactorSpec spec = evaluator.spec();
+            double[] params = spec.defaults();
+            int yearsAhead;
+            try {
+                String method = exchange.getRequestMethod();
+                if ("POST".equals(method)) {
+                    yearsAhead = parseJson(readBody(exchange.getRequestBody()), spec, params);
+                } else if ("GET".equals(method)) {
+                    yearsAhead = parseQuery(exchange.getRequestURI(), spec, params);
+                } else {
+                    respond(exchange, 405, "{\"error\":\"use GET or POST\"}\n");
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, "{\"error\":" + jsonString(e.getMessage()) + "}\n");
+                return;
+            }
+            streamProjection(exchange, params, yearsAhead);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void streamProjection(HttpExchange exchange, double[] params, int yearsAhead) throws IOException {
+        int years = yearsAhead + 1;
+        // Packed female | male | gap, shared read-only between requests for the same scenario
+        double[] rows = cache.computeIfAbsent(params, yearsAhead, canonical -> {
+            double[] female = new double[years];
+            double[] male = new double[years];
+            double[] gap = new double[years];
+            evaluator.evaluateBatch(canonical, 1, startYear, years, female, male, gap);
+            double[] packed = new double[3 * years];
+            System.arraycopy(female, 0, packed, 0, years);
+            System.arraycopy(male, 0, packed, years, years);
+            System.arraycopy(gap, 0, packed, 2 * years, years);
+            return packed;
+        });
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);  // chunked
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            out.write("{\"startYear\":");
+            out.write(Integer.toString(startYear));
+            out.write(",\"results\":[");
+            for (int y = 0; y < years; y++) {
+                if (y > 0) out.write(',');
+                out.write("{\"year\":");
+                out.write(Integer.toString(startYear + y));
+                out.write(",\"female\":");
+                out.write(Double.toString(round(rows[y])));
+                out.write(",\"male\":");
+                out.write(Double.toString(round(rows[years + y])));
+                out.write(",\"gap\":");
+                out.write(Double.toString(round(rows[2 * years + y])));
+                out.write('}');
+            }
+            out.write("]}\n");
+        }
+    }
+
+    private String statsJson() {
+        return String.format("{\"size\":%d,\"hits\":%d,\"misses\":%d,\"evictions\":%d}%n",
+                cache.size(), cache.hits(), cache.misses(), cache.evictions());
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 1e4) / 1e4;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) throw new IllegalArgumentException("request body too large");
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    // Quoted and escaped per RFC 8259
+    static String jsonString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // Body: a JSON object whose members are "years", parameter keys, and "weights" /
+    // "multipliers" objects of parameter keys (the nesting is optional). Every value is a
+    // number; anything else, and any malformed JSON, is rejected. Returns the horizon
+    // ("years", default 10) and writes the keys into params.
+    static int parseJson(String json, FactorSpec spec, double[] params) {
+        return new JsonBody(json, spec, params).parse();
+    }
+
+    // Recursive descent over RFC 8259 restricted to the shape above; errors are
+    // IllegalArgumentExceptions naming the offending position or key
+    private static final class JsonBody {
+        final String text;
+        final FactorSpec spec;
+        final double[] params;
+        int pos;
+        int yearsAhead = 10;
+
+        JsonBody(String text, FactorSpec spec, double[] params) {
+            this.text = text;
+            this.spec = spec;
+            this.params = params;
+        }
+
+        int parse() {
+            skipWhitespace();
+            object(true);
+            skipWhitespace();
+            if (pos < text.length()) throw error("unexpected trailing content");
+            return yearsAhead;
+        }
+
+        // { "key": value, ... }; nested objects are only allowed at the top level
+        private void object(boolean top) {
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (peek() == '{') {
+                    if (!top || !("weights".equals(key) || "multipliers".equals(key))) {
+                        throw new IllegalArgumentException("expected a number for " + key);
+                    }
+                    object(false);
+                } else {
+                    String number = number(key);
+                    if ("years".equals(key) && !top) throw new IllegalArgumentException("unknown parameter: " + key);
+                    yearsAhead = assign(key, number, spec, params, yearsAhead);
+                }
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return;
+                if (c != ',') throw error("expected ',' or '}'");
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c < 0x20) throw error("control character in string");
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append(e);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) throw error("bad \\u escape");
+                        int code = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int digit = Character.digit(text.charAt(pos++), 16);
+                            if (digit < 0) throw error("bad \\u escape");
+                            code = code * 16 + digit;
+                        }
+                        sb.append((char) code);
+                    }
+                    default -> throw error("bad escape");
+                }
+            }
+        }
+
+        // -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?, returned as text for assign
+        private String number(String key) {
+            int start = pos;
+            if (peek() == '-') pos++;
+            if (peek() == '0') {
+                pos++;
+            } else if (!digits()) {
+                throw new IllegalArgumentException("expected a number for " + key);
+            }
+            if (peek() == '.') {
+                pos++;
+                if (!digits()) throw error("bad number for " + key);
+            }
+            if (peek() == 'e' || peek() == 'E') {
+                pos++;
+                if (peek() == '+' || peek() == '-') pos++;
+                if (!digits()) throw error("bad number for " + key);
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean digits() {
+            int start = pos;
+            while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') pos++;
+            return pos > start;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && " \t\n\r".indexOf(text.charAt(pos)) >= 0) pos++;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private char next() {
+            if (pos >= text.length()) throw error("unexpected end of input");
+            return text.charAt(pos++);
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("expected '" + c + "'");
+            pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("malformed JSON at offset " + pos + ": " + message);
+        }
+    }
+
+    static int parseQuery(URI uri, FactorSpec spec, double[] params) {
+        int yearsAhead = 10;
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) return yearsAhead;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            yearsAhead = assign(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8), spec, params, yearsAhead);
+        }
+        return yearsAhead;
+    }
+
+    private static int assign(String key, String value, FactorSpec spec, double[] params, int yearsAhead) {
+        double v;
+        try {
+            v = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number for " + key);
+        }
+        if (!Double.isFinite(v)) throw new IllegalArgumentException("bad number for " + key);
+        if ("years".equals(key)) {
+            if (v != Math.rint(v) || v < 0 || v > MAX_YEARS_AHEAD) {
+                throw new IllegalArgumentException("years must be a whole number between 0 and " + MAX_YEARS_AHEAD);
+            }
+            return (int) v;
+        }
+        int i = spec.indexOf(key);
+        if (i < 0) throw new IllegalArgumentException("unknown parameter: " + key);
+        if (v < spec.min(i) || v > spec.max(i)) {
+            throw new IllegalArgumentException(key + " must be in [" + spec.min(i) + ", " + spec.max(i) + "]");
+        }
+        params[i] = v;
+        return yearsAhead;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", body.startsWith("{") ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // java simulator.ProjectionServer [port]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        ProjectionServer server = onLoopback(port);
+        server.start();
+        System.err.println("Projection server listening on http://" + server.address().getHostString()
+                + ":" + server.address().getPort() + "/projection");
+    }
+}
@@ -0,0 +1,463 @@
+package simulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multi-region mode: each region is the national baseline plus its own overrides
+ * (historical series, individual parameter values). All regions are projected in parallel
+ * on a fork/join pool, and the results are rolled up into population-weighted aggregates
+ * along the region key hierarchy: "CA/public" counts towards "CA/*" and the national "*".
+ *
+ * A region stores only what it overrides, so thousands of sub-regions cost a few KB each.
+ * Worker threads apply a region's series to a per-thread copy of the national lookup table
+ * just before projecting it. The roll-up runs in region order after the parallel phase, so
+ * the output does not depend on the thread count.
+ *
+ * Regional datasets use the ColumnarDataset key convention "<series key>/<region>", e.g.
+ * "hsGraduation.female/CA/public", plus "population/<region>" for the weights and
+ * "param/<parameter key>/<region>" for parameter overrides, e.g. "param/culturalShift/CA"
+ * (the value of the series' last year is used).
+ */
+class RegionalProjection {
+
+    static final String NATIONAL = "*";
+    static final String POPULATION = "population";
+    static final String PARAM = "param";
+    private static final char SEPARATOR = '/';
+
+    static final class Region {
+        final String key;
+        private final FactorSpec spec;
+        private double population = 1;
+        private double[] populationYears, populationValues;  // optional series; replaces the scalar
+        private int[] paramIndex = new int[0];
+        private double[] paramValue = new double[0];
+        private HistoricalData.Series[] series = new HistoricalData.Series[0];
+        private double[][] seriesYears = new double[0][], seriesValues = new double[0][];
+
+        Region(String key, FactorSpec spec) {
+            if (key.isEmpty() || key.equals(NATIONAL) || key.endsWith(SEPARATOR + NATIONAL)) {
+                throw new IllegalArgumentException("Invalid region key: '" + key + "'");
+            }
+            this.key = key;
+            this.spec = spec;
+        }
+
+        Region withPopulation(double population) {
+            if (!(population >= 0)) throw new IllegalArgumentException("Population must be >= 0 for " + key);
+            this.population = population;
+            this.populationYears = null;
+            this.populationValues = null;
+            return this;
+        }
+
+        // Piecewise linear between the given years, held flat beyond them
+        Region withPopulation(double[] years, double[] values) {
+            if (years.length == 0 || years.length != values.length) {
+                throw new IllegalArgumentException("Population for " + key + " needs matching, non-empty years and values");
+            }
+            for (int i = 0; i < years.length; i++) {
+                if (!(values[i] >= 0)) throw new IllegalArgumentException("Population must be >= 0 for " + key);
+                if (i > 0 && years[i] <= years[i - 1]) {
+                    throw new IllegalArgumentException("Population years for " + key + " must be increasing");
+                }
+            }
+            this.populationYears = years.clone();
+            this.populationValues = values.clone();
+            return this;
+        }
+
+        // Parameter override by spec key
+        Region override(String param, double value) {
+            int p = spec.indexOf(param);
+            if (p < 0) throw new IllegalArgumentException("Unknown parameter " + param + " for " + key);
+            return override(p, value);
+        }
+
+        // Parameter override in the spec's flat layout, within the spec's range
+        Region override(int param, double value) {
+            if (param < 0 || param >= spec.parameterCount()) {
+                throw new IllegalArgumentException("Unknown parameter for " + key);
+            }
+            if (!(value >= spec.min(param) && value <= spec.max(param))) {
+                throw new IllegalArgumentException(spec.key(param) + " for " + key + " must be in ["
+                        + spec.min(param) + ", " + spec.max(param) + "], got " + value);
+            }
+            for (int k = 0; k < paramIndex.length; k++) {
+                if (paramIndex[k] == param) {
+                    paramValue[k] = value;
+                    return this;
+                }
+            }
+            paramIndex = Arrays.copyOf(paramIndex, paramIndex.length + 1);
+            paramValue = Arrays.copyOf(paramValue, paramValue.length + 1);
+            paramIndex[paramIndex.length - 1] = param;
+            paramValue[paramValue.length - 1] = value;
+            return this;
+        }
+
+        // Series override; validated and copied here so workers can use the knots as-is
+        Region override(HistoricalData.Series s, double[] years, double[] values) {
+            HistoricalData.checkKnots(s, years, values);
+            int k = Arrays.asList(series).indexOf(s);
+            if (k < 0) {
+                k = series.length;
+                series = Arrays.copyOf(series, k + 1);
+                seriesYears = Arrays.copyOf(seriesYears, k + 1);
+                seriesValues = Arrays.copyOf(seriesValues, k + 1);
+                series[k] = s;
+            }
+            seriesYears[k] = years.clone();
+            seriesValues[k] = values.clone();
+            return this;
+        }
+
+        double population(int year) {
+            double[] xs = populationYears, ys = populationValues;
+            if (xs == null) return population;
+            if (year <= xs[0]) return ys[0];
+            if (year >= xs[xs.length - 1]) return ys[ys.length - 1];
+            int seg = 0;
+            while (year > xs[seg + 1]) seg++;
+            double t = (year - xs[seg]) / (xs[seg + 1] - xs[seg]);
+            return ys[seg] + t * (ys[seg + 1] - ys[seg]);
+        }
+    }
+
+    private final EnrollmentModel national;  // shared: calculateBatch only reads it
+    private final double[] baseline;
+    private final List<Region> regions = new ArrayList<>();
+    private final Map<String, Region> byKey = new LinkedHashMap<>();
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int leafSize = 16;
+
+    RegionalProjection(EnrollmentModel national) {
+        this.national = national;
+        this.baseline = national.spec.defaults();
+    }
+
+    // Regions from "<series key>/<region>", "population/<region>" and
+    // "param/<parameter key>/<region>" entries, in key order. Other entries (including
+    // national series without a region) are ignored; unknown parameters and out-of-range
+    // values are errors.
+    static RegionalProjection fromDataset(ColumnarDataset dataset, EnrollmentModel national) {
+        RegionalProjection projection = new RegionalProjection(national);
+        List<String> keys = new ArrayList<>();
+        for (String key : dataset.keys()) keys.add(key);
+        keys.sort(null);
+        for (String key : keys) {
+            int slash = key.indexOf(SEPARATOR);
+            if (slash <= 0 || slash == key.length() - 1) continue;
+            String head = key.substring(0, slash);
+            String region = key.substring(slash + 1);
+            if (head.equals(POPULATION)) {
+                double[][] knots = HistoricalData.readKnots(dataset, key, 1);
+                if (knots != null) projection.region(region).withPopulation(knots[0], knots[1]);
+                continue;
+            }
+            if (head.equals(PARAM)) {
+                int next = region.indexOf(SEPARATOR);
+                if (next <= 0 || next == region.length() - 1) {
+                    throw new IllegalArgumentException("Expected " + PARAM + "/<parameter>/<region>, got " + key);
+                }
+                double[][] knots = HistoricalData.readKnots(dataset, key, 1);
+                if (knots != null) {
+                    double[] values = knots[1];
+                    projection.region(region.substring(next + 1)).override(region.substring(0, next), values[values.length - 1]);
+                }
+                continue;
+            }
+            HistoricalData.Series s = HistoricalData.Series.forKey(head);
+            if (s == null) continue;
+            double[][] knots = HistoricalData.readKnots(dataset, key, 2);
+            if (knots != null) projection.region(region).override(s, knots[0], knots[1]);
+        }
+        return projection;
+    }
+
+    // Existing region with this key, or a new one with national defaults and population 1
+    Region region(String key) {
+        Region region = byKey.get(key);
+        if (region == null) {
+            region = new Region(key, national.spec);
+            byKey.put(key, region);
+            regions.add(region);
+        }
+        return region;
+    }
+
+    int regionCount() {
+        return regions.size();
+    }
+
+    // National parameter vector (spec layout) that region overrides apply on top of
+    RegionalProjection withBaseline(double[] params) {
+        if (params.length != baseline.length) {
+            throw new IllegalArgumentException("Expected " + baseline.length + " parameters, got " + params.length);
+        }
+        System.arraycopy(params, 0, baseline, 0, baseline.length);
+        return this;
+    }
+
+    RegionalProjection withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    RegionalProjection withLeafSize(int leafSize) {
+        this.leafSize = Math.max(1, leafSize);
+        return this;
+    }
+
+    RegionalResult run(int startYear, int yearsAhead) {
+        int years = yearsAhead + 1;
+        int r = regions.size();
+        double[] female = new double[r * years], male = new double[r * years], gap = new double[r * years];
+        if (r > 0) {
+            Map<Thread, Worker> workers = new ConcurrentHashMap<>();
+            pool.invoke(new Chunk(0, r, startYear, years, female, male, gap, workers));
+        }
+        return rollUp(startYear, years, female, male, gap);
+    }
+
+    // ============================================
+    // PARALLEL PHASE
+    // ============================================
+
+    // Per-thread scratch: a model over a private copy of the national table, kept in sync
+    // with it except for the series the last projected region overrode
+    private final class Worker {
+        final HistoricalData data = new HistoricalData();
+        final EnrollmentModel model = new EnrollmentModel(national.spec, data);
+        final boolean[] overridden = new boolean[HistoricalData.Series.values().length];
+        final double[] params = new double[baseline.length];
+        final double[] female, male, gap;
+
+        Worker(int years) {
+            for (HistoricalData.Series s : HistoricalData.Series.values()) data.copyFrom(national.historicalData, s);
+            female = new double[years];
+            male = new double[years];
+            gap = new double[years];
+        }
+
+        void project(Region region, int startYear, int years) {
+            System.arraycopy(baseline, 0, params, 0, params.length);
+            for (int k = 0; k < region.paramIndex.length; k++) params[region.paramIndex[k]] = region.paramValue[k];
+
+            for (HistoricalData.Series s : HistoricalData.Series.values()) {
+                if (overridden[s.ordinal()]) {
+                    data.copyFrom(national.historicalData, s);
+                    overridden[s.ordinal()] = false;
+                }
+            }
+            for (int k = 0; k < region.series.length; k++) {
+                data.useKnots(region.series[k], region.seriesYears[k], region.seriesValues[k]);
+                overridden[region.series[k].ordinal()] = true;
+            }
+            model.calculateBatch(params, 1, startYear, years, female, male, gap);
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+        final int from, to, startYear, years;
+        final double[] female, male, gap;
+        final Map<Thread, Worker> workers;
+
+        Chunk(int from, int to, int startYear, int years,
+              double[] female, double[] male, double[] gap, Map<Thread, Worker> workers) {
+            this.from = from; this.to = to;
+            this.startYear = startYear; this.years = years;
+            this.female = female; this.male = male; this.gap = gap;
+            this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                Worker w = workers.computeIfAbsent(Thread.currentThread(), t -> new Worker(years));
+                for (int i = from; i < to; i++) {
+                    w.project(regions.get(i), startYear, years);
+                    System.arraycopy(w.female, 0, female, i * years, years);
+                    System.arraycopy(w.male, 0, male, i * years, years);
+                    System.arraycopy(w.gap, 0, gap, i * years, years);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(from, mid, startYear, years, female, male, gap, workers),
+                    new Chunk(mid, to, startYear, years, female, male, gap, workers));
+        }
+    }
+
+    // ============================================
+    // ROLL-UP
+    // ============================================
+
+    // Population-weighted shares for "*" and every proper key prefix ("CA/*" for "CA/public")
+    private RegionalResult rollUp(int startYear, int years, double[] female, double[] male, double[] gap) {
+        Map<String, Integer> aggregates = new LinkedHashMap<>();
+        aggregates.put(NATIONAL, 0);
+        int[][] ancestors = new int[regions.size()][];
+        for (int i = 0; i < regions.size(); i++) {
+            String key = regions.get(i).key;
+            List<Integer> chain = new ArrayList<>();
+            chain.add(0);
+            for (int p = key.indexOf(SEPARATOR); p > 0; p = key.indexOf(SEPARATOR, p + 1)) {
+                String prefix = key.substring(0, p + 1) + NATIONAL;
+                Integer a = aggregates.get(prefix);
+                if (a == null) {
+                    a = aggregates.size();
+                    aggregates.put(prefix, a);
+                }
+                chain.add(a);
+            }
+            ancestors[i] = chain.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int a = aggregates.size();
+        double[] weight = new double[a * years], sumFemale = new double[a * years], sumMale = new double[a * years];
+        for (int i = 0; i < regions.size(); i++) {
+            Region region = regions.get(i);
+            for (int y = 0; y < years; y++) {
+                double w = region.population(startYear + y);
+                double f = w * female[i * years + y], m = w * male[i * years + y];
+                for (int anc : ancestors[i]) {
+                    weight[anc * years + y] += w;
+                    sumFemale[anc * years + y] += f;
+                    sumMale[anc * years + y] += m;
+                }
+            }
+        }
+        double[] aggFemale = new double[a * years], aggMale = new double[a * years], aggGap = new double[a * years];
+        for (int k = 0; k < a * years; k++) {
+            aggFemale[k] = weight[k] > 0 ? sumFemale[k] / weight[k] : Double.NaN;
+            aggMale[k] = weight[k] > 0 ? sumMale[k] / weight[k] : Double.NaN;
+            aggGap[k] = aggFemale[k] - aggMale[k];
+        }
+
+        String[] regionKeys = new String[regions.size()];
+        for (int i = 0; i < regionKeys.length; i++) regionKeys[i] = regions.get(i).key;
+        return new RegionalResult(startYear, years, regionKeys, female, male, gap,
+                aggregates.keySet().toArray(new String[0]), aggFemale, aggMale, aggGap, weight);
+    }
+
+    static class RegionalResult {
+        final int startYear, years;
+        // Region-major: value for region i, year index y at [i * years + y]
+        final String[] regionKeys;
+        final double[] female, male, gap;
+        final String[] aggregateKeys;  // "*" first, then "<prefix>/*" in first-seen order
+        final double[] aggregateFemale, aggregateMale, aggregateGap, aggregatePopulation;
+
+        RegionalResult(int startYear, int years, String[] regionKeys, double[] female, double[] male, double[] gap,
+                       String[] aggregateKeys, double[] aggregateFemale, double[] aggregateMale,
+                       double[] aggregateGap, double[] aggregatePopulation) {
+            this.startYear = startYear;
+            this.years = years;
+            this.regionKeys = regionKeys;
+            this.female = female;
+            this.male = male;
+            this.gap = gap;
+            this.aggregateKeys = aggregateKeys;
+            this.aggregateFemale = aggregateFemale;
+            this.aggregateMale = aggregateMale;
+            this.aggregateGap = aggregateGap;
+            this.aggregatePopulation = aggregatePopulation;
+        }
+
+        int indexOfAggregate(String key) {
+            for (int a = 0; a < aggregateKeys.length; a++) {
+                if (aggregateKeys[a].equals(key)) return a;
+            }
+            return -1;
+        }
+
+        // Aggregates first, then (optionally) every region
+        List<String> toTable(boolean regions) {
+            List<String> rows = new ArrayList<>();
+            rows.add("region,year,female,male,gap,population");
+            for (int a = 0; a < aggregateKeys.length; a++) {
+                for (int y = 0; y < years; y++) {
+                    int k = a * years + y;
+                    rows.add(String.format("%s,%d,%.2f,%.2f,%.2f,%.0f", aggregateKeys[a], startYear + y,
+                            aggregateFemale[k], aggregateMale[k], aggregateGap[k], aggregatePopulation[k]));
+                }
+            }
+            if (!regions) return rows;
+            for (int i = 0; i < regionKeys.length; i++) {
+                for (int y = 0; y < years; y++) {
+                    int k = i * years + y;
+                    rows.add(String.format("%s,%d,%.2f,%.2f,%.2f,", regionKeys[i], startYear + y,
+                            female[k], male[k], gap[k]));
+                }
+            }
+            return rows;
+        }
+    }
+
+    // Synthetic hierarchy for timing: 50 states, regions spread across them, each with its
+    // own HS graduation record, population and cultural-shift multiplier
+    static RegionalProjection synthetic(EnrollmentModel national, int count, long seed) {
+        RegionalProjection projection = new RegionalProjection(national);
+        SplittableRandom rng = new SplittableRandom(seed);
+        HistoricalData data = national.historicalData;
+        int culturalShift = national.spec.indexOf("culturalShift");
+        for (int i = 0; i < count; i++) {
+            Region region = projection.region(String.format("S%02d/%d", i % 50, i));
+            region.withPopulation(1_000 + rng.nextDouble() * 999_000);
+            for (HistoricalData.Series s : new HistoricalData.Series[] {
+                    HistoricalData.Series.HS_GRADUATION_FEMALE, HistoricalData.Series.HS_GRADUATION_MALE}) {
+                double[] years = data.knotYears(s);
+                double[] values = data.knotValues(s);
+                double scale = 0.9 + 0.2 * rng.nextDouble();
+                for (int k = 0; k < values.length; k++) values[k] = Math.min(100, values[k] * scale);
+                region.override(s, years, values);
+            }
+            if (culturalShift >= 0) region.override(culturalShift, 0.5 + rng.nextDouble());
+        }
+        return projection;
+    }
+
+    // java simulator.RegionalProjection <dataset.ripc | regionCount> [yearsAhead] [threads] [--regions]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: RegionalProjection <dataset.ripc | regionCount> [yearsAhead] [threads] [--regions]");
+            return;
+        }
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        boolean regions = Arrays.asList(args).contains("--regions");
+        Simulator simulator = new Simulator();
+
+        RegionalProjection projection;
+        Path file = Path.of(args[0]);
+        if (Files.exists(file)) {
+            try (ColumnarDataset dataset = ColumnarDataset.open(file)) {
+                projection = fromDataset(dataset, simulator.model);
+            }
+        } else {
+            projection = synthetic(simulator.model, Integer.parseInt(args[0]), 42);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        RegionalResult result = projection.withPool(pool).run(simulator.currentYear, years);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        pool.shutdown();
+
+        result.toTable(regions).forEach(System.out::println);
+        System.err.printf("%d regions x %d years on %d threads in %d ms%n",
+                projection.regionCount(), years + 1, threads, ms);
+    }
+}
@@ -0,0 +1,167 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of projection results keyed on the parameter vector.
+ *
+ * The parameters are quantized to QUANTUM and, with the horizon, hashed into a
+ * primitive long key; the quantized values are kept in the entry to rule out hash
+ * collisions. Callers compute on the canonical (quantized) vector, so a cached result
+ * never depends on which nearby slider position happened to fill it.
+ *
+ * Eviction is LRU within each of a fixed number of lock stripes, which lets the FX
+ * thread, the scheduler worker and server threads share one instance without
+ * contending on a single lock. Hit/miss/eviction counters are LongAdders.
+ */
+public class ScenarioCache<V> {
+
+    // Finer than a slider can be positioned by hand, coarse enough to absorb jitter
+    static final double QUANTUM = 1e-4;
+    private static final int STRIPES = 16;
+
+    private static final class Entry<V> {
+        final long[] quantized;
+        final V value;
+
+        Entry(long[] quantized, V value) {
+            this.quantized = quantized;
+            this.value = value;
+        }
+    }
+
+    private final Stripe<V>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public ScenarioCache(int capacity) {
+        int perStripe = Math.max(1, capacity / STRIPES);
+        stripes = (Stripe<V>[]) new Stripe<?>[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe<>(perStripe, evictions);
+    }
+
+    private static final class Stripe<V> extends LinkedHashMap<Long, Entry<V>> {
+        final int capacity;
+        final LongAdder evictions;
+
+        Stripe(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);  // access order = LRU
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // Quantized params followed by the horizon
+    static long[] quantize(double[] params, int yearsAhead) {
+        long[] q = new long[params.length + 1];
+        for (int i = 0; i < params.length; i++) q[i] = Math.round(params[i] / QUANTUM);
+        q[params.length] = yearsAhead;
+        return q;
+    }
+
+    static double[] canonical(long[] quantized) {
+        double[] params = new double[quantized.length - 1];
+        for (int i = 0; i < params.length; i++) params[i] = quantized[i] * QUANTUM;
+        return params;
+    }
+
+    static long key(long[] quantized) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (long q : quantized) h = EnsembleEngine.mix64(h ^ q) + 0x9E3779B97F4A7C15L;
+        return h;
+    }
+
+    V get(double[] params, int yearsAhead) {
+        long[] q = quantize(params, yearsAhead);
+        V value = lookup(q, key(q));
+        if (value != null) hits.increment(); else misses.increment();
+        return value;
+    }
+
+    // On a miss, compute(canonical params) runs outside any lock and the result is stored
+    V computeIfAbsent(double[] params, int yearsAhead, Function<double[], V> compute) {
+        long[] q = quantize(params, yearsAhead);
+        long key = key(q);
+        V value = lookup(q, key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = compute.apply(canonical(q));
+        Stripe<V> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, new Entry<>(q, value));
+        }
+        return value;
+    }
+
+    private V lookup(long[] q, long key) {
+        Stripe<V> stripe = stripe(key);
+        Entry<V> e;
+        synchronized (stripe) {
+            e = stripe.get(key);
+        }
+        return e != null && Arrays.equals(e.quantized, q) ? e.value : null;
+    }
+
+    private Stripe<V> stripe(long key) {
+        return stripes[(int) (key >>> 60) & (STRIPES - 1)];
+    }
+
+    void clear() {
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                n += stripe.size();
+            }
+        }
+        return n;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0 : h / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScenarioCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%]",
+                size(), hits(), misses(), evictions(), hitRate() * 100);
+    }
+}
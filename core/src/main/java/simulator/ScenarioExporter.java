@@ -0,0 +1,360 @@
+package simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams (scenario, parameters, year, female, male, gap) rows for a whole scenario
+ * ensemble to disk without materializing them.
+ *
+ * Scenarios are cut into row groups. Producer threads each take a free direct buffer
+ * from a fixed pool, claim the next group, evaluate it with calculateBatch (or step it
+ * through a DynamicProjection, see withStep) and encode it straight into the buffer. A single writer thread drains groups to a FileChannel in
+ * group order and hands the buffers back. When the disk falls behind, producers block
+ * on the empty pool, so heap use is constant and off-heap use is pool size x buffer
+ * size regardless of how many rows are exported.
+ *
+ * CSV: header row, then one row per (scenario, year); parameters with 6 decimals,
+ * shares and gap with 4.
+ *
+ * Columnar (big-endian, like ColumnarDataset):
+ *   "RIPCEXP1" | int version | int paramCount | int startYear | int years | long scenarios
+ *   paramCount x { short keyLength | key UTF-8 }
+ *   row groups: long firstScenario | int count
+ *               | paramCount x double[count]      (per-scenario parameter columns)
+ *               | double[count x years] female | male | gap   (scenario-major)
+ * Scenario ids within a group are firstScenario + i and years are startYear + y, so
+ * neither is stored per row.
+ */
+public class ScenarioExporter {
+
+    public enum Format { CSV, COLUMNAR }
+
+    // Fills out[offset .. offset + spec.parameterCount()) with the parameters of one scenario
+    public interface Scenarios {
+        void parameters(long scenario, double[] out, int offset);
+    }
+
+    private static final byte[] MAGIC = "RIPCEXP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    // Upper bound on one CSV row: 20-digit id, year, 3 outputs and separators, plus
+    // up to 25 bytes (comma, sign, 12 + 6 digits or a Double.toString) per parameter
+    private static final int MAX_CSV_ROW_BYTES = 128;
+    private static final int MAX_CSV_PARAM_BYTES = 26;
+    static final int DEFAULT_BUFFER_BYTES = 8 << 20;
+
+    private final Format format;
+    private final EnrollmentEvaluator evaluator;  // stateless, shared by the producers
+    private final FactorSpec spec;
+    private int startYear = new Simulator().currentYear;
+    private DynamicProjection.Step step;  // null = the static model
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int bufferBytes = DEFAULT_BUFFER_BYTES;
+
+    // Built-in spec and history
+    public ScenarioExporter(Format format) {
+        this(format, new EnrollmentEvaluator());
+    }
+
+    // Parameters in evaluator's spec layout, projected from its history
+    public ScenarioExporter(Format format, EnrollmentEvaluator evaluator) {
+        this.format = format;
+        this.evaluator = evaluator;
+        this.spec = evaluator.spec();
+    }
+
+    public static Format formatFor(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv") ? Format.CSV : Format.COLUMNAR;
+    }
+
+    // First exported year
+    public ScenarioExporter withStartYear(int startYear) {
+        this.startYear = startYear;
+        return this;
+    }
+
+    // Steps each scenario with feedback at this resolution; null (the default) = static model
+    public ScenarioExporter withStep(DynamicProjection.Step step) {
+        this.step = step;
+        return this;
+    }
+
+    public ScenarioExporter withThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public ScenarioExporter withBufferBytes(int bufferBytes) {
+        this.bufferBytes = bufferBytes;
+        return this;
+    }
+
+    private int rowBytes(int years) {
+        return format == Format.CSV
+                ? years * (MAX_CSV_ROW_BYTES + spec.parameterCount() * MAX_CSV_PARAM_BYTES)
+                : spec.parameterCount() * Double.BYTES + 3 * years * Double.BYTES;
+    }
+
+    // Returns the number of (scenario, year) rows written
+    public long export(Path file, long scenarios, int yearsAhead, Scenarios source) throws IOException {
+        int startYear = this.startYear;
+        int years = yearsAhead + 1;
+        int perScenario = rowBytes(years);
+        int groupHeader = format == Format.CSV ? 0 : Long.BYTES + Integer.BYTES;
+        int scenariosPerGroup = Math.max(1, (bufferBytes - groupHeader) / perScenario);
+        int capacity = groupHeader + scenariosPerGroup * perScenario;
+        long groups = (scenarios + scenariosPerGroup - 1) / scenariosPerGroup;
+
+        // Claiming a group only after holding a buffer keeps the lowest unwritten group
+        // always in progress, so the writer can never wait on a group that is starved
+        int poolSize = threads + 2;
+        BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            free.add(ByteBuffer.allocateDirect(capacity).order(ByteOrder.BIG_ENDIAN));
+        }
+        // At most poolSize groups are claimed but unwritten, so group % poolSize is unique
+        ByteBuffer[] ready = new ByteBuffer[poolSize];
+        AtomicLong nextGroup = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int paramCount = spec.parameterCount();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header(startYear, years, scenarios));
+
+            Thread writer = new Thread(() -> {
+                try {
+                    for (long g = 0; g < groups; g++) {
+                        ByteBuffer buf = awaitGroup(ready, g, failure);
+                        if (buf == null) return;
+                        buf.flip();
+                        writeFully(channel, buf);
+                        buf.clear();
+                        free.put(buf);
+                    }
+                } catch (Throwable t) {
+                    fail(failure, ready, t);
+                }
+            }, "export-writer");
+            writer.start();
+
+            Thread[] producers = new Thread[threads];
+            for (int p = 0; p < threads; p++) {
+                producers[p] = new Thread(() -> {
+                    // A DynamicProjection keeps per-run scratch, so each producer steps with its own
+                    DynamicProjection dynamic = step == null ? null
+                            : new DynamicProjection(evaluator).withStep(step).withLeafSize(Integer.MAX_VALUE);
+                    double[] params = new double[scenariosPerGroup * paramCount];
+                    double[] female = new double[scenariosPerGroup * years];
+                    double[] male = new double[scenariosPerGroup * years];
+                    double[] gap = new double[scenariosPerGroup * years];
+                    try {
+                        while (failure.get() == null) {
+                            // Timed so producers notice a writer failure instead of waiting forever
+                            ByteBuffer buf = free.poll(100, TimeUnit.MILLISECONDS);
+                            if (buf == null) continue;
+                            long g = nextGroup.getAndIncrement();
+                            if (g >= groups) {
+                                free.put(buf);
+                                return;
+                            }
+                            long first = g * scenariosPerGroup;
+                            int count = (int) Math.min(scenariosPerGroup, scenarios - first);
+                            for (int i = 0; i < count; i++) {
+                                source.parameters(first + i, params, i * paramCount);
+                            }
+                            if (dynamic == null) {
+                                evaluator.evaluateBatch(params, count, startYear, years, female, male, gap);
+                            } else {
+                                dynamic.run(params, count, startYear, yearsAhead, female, male, gap);
+                            }
+                            if (format == Format.CSV) {
+                                encodeCsv(buf, first, count, paramCount, startYear, years, params, female, male, gap);
+                            } else {
+                                encodeColumnar(buf, first, count, paramCount, years, params, female, male, gap);
+                            }
+                            synchronized (ready) {
+                                ready[(int) (g % ready.length)] = buf;
+                                ready.notifyAll();
+                            }
+                        }
+                    } catch (Throwable t) {
+                        fail(failure, ready, t);
+                    }
+                }, "export-producer-" + p);
+                producers[p].start();
+            }
+
+            try {
+                for (Thread p : producers) p.join();
+                writer.join();
+            } catch (InterruptedException e) {
+                fail(failure, ready, e);
+                writer.interrupt();
+                for (Thread p : producers) p.interrupt();
+                Thread.currentThread().interrupt();
+            }
+
+            Throwable t = failure.get();
+            if (t instanceof IOException io) throw io;
+            if (t instanceof RuntimeException re) throw re;
+            if (t instanceof Error err) throw err;
+            if (t != null) throw new IOException("Export interrupted", t);
+        }
+        return scenarios * years;
+    }
+
+    private static ByteBuffer awaitGroup(ByteBuffer[] ready, long group, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        int slot = (int) (group % ready.length);
+        synchronized (ready) {
+            while (ready[slot] == null) {
+                if (failure.get() != null) return null;
+                ready.wait();
+            }
+            ByteBuffer buf = ready[slot];
+            ready[slot] = null;
+            return buf;
+        }
+    }
+
+    private static void fail(AtomicReference<Throwable> failure, ByteBuffer[] ready, Throwable t) {
+        failure.compareAndSet(null, t);
+        synchronized (ready) {
+            ready.notifyAll();
+        }
+    }
+
+    private ByteBuffer header(int startYear, int years, long scenarios) {
+        if (format == Format.CSV) {
+            StringBuilder sb = new StringBuilder("scenario");
+            for (int p = 0; p < spec.parameterCount(); p++) sb.append(',').append(spec.key(p));
+            sb.append(",year,female,male,gap\n");
+            return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        int size = MAGIC.length + 4 * Integer.BYTES + Long.BYTES;
+        for (int p = 0; p < spec.parameterCount(); p++) {
+            size += Short.BYTES + spec.key(p).getBytes(StandardCharsets.UTF_8).length;
+        }
+        ByteBuffer head = ByteBuffer.allocate(size);
+        head.put(MAGIC).putInt(VERSION).putInt(spec.parameterCount()).putInt(startYear).putInt(years).putLong(scenarios);
+        for (int p = 0; p < spec.parameterCount(); p++) {
+            byte[] key = spec.key(p).getBytes(StandardCharsets.UTF_8);
+            head.putShort((short) key.length).put(key);
+        }
+        return head.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) channel.write(buf);
+    }
+
+    // ============================================
+    // ENCODING
+    // ============================================
+
+    private static void encodeColumnar(ByteBuffer buf, long first, int count, int paramCount, int years,
+                                       double[] params, double[] female, double[] male, double[] gap) {
+        buf.putLong(first).putInt(count);
+        for (int p = 0; p < paramCount; p++) {
+            for (int i = 0; i < count; i++) buf.putDouble(params[i * paramCount + p]);
+        }
+        int n = count * years;
+        for (int k = 0; k < n; k++) buf.putDouble(female[k]);
+        for (int k = 0; k < n; k++) buf.putDouble(male[k]);
+        for (int k = 0; k < n; k++) buf.putDouble(gap[k]);
+    }
+
+    private static void encodeCsv(ByteBuffer buf, long first, int count, int paramCount, int startYear, int years,
+                                  double[] params, double[] female, double[] male, double[] gap) {
+        byte[] digits = new byte[20];
+        for (int i = 0; i < count; i++) {
+            for (int y = 0; y < years; y++) {
+                int k = i * years + y;
+                putLong(buf, first + i, digits);
+                for (int p = 0; p < paramCount; p++) {
+                    buf.put((byte) ',');
+                    putFixed(buf, params[i * paramCount + p], 1_000_000L, digits);
+                }
+                buf.put((byte) ',');
+                putLong(buf, startYear + y, digits);
+                buf.put((byte) ',');
+                putFixed(buf, female[k], 10_000L, digits);
+                buf.put((byte) ',');
+                putFixed(buf, male[k], 10_000L, digits);
+                buf.put((byte) ',');
+                putFixed(buf, gap[k], 10_000L, digits);
+                buf.put((byte) '\n');
+            }
+        }
+    }
+
+    // Fixed-point ASCII without going through String; scale = 10^decimals
+    static void putFixed(ByteBuffer buf, double v, long scale, byte[] digits) {
+        if (!Double.isFinite(v) || Math.abs(v) >= 1e12) {
+            buf.put(Double.toString(v).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        long r = Math.round(v * scale);
+        if (r < 0) {
+            buf.put((byte) '-');
+            r = -r;
+        }
+        putLong(buf, r / scale, digits);
+        buf.put((byte) '.');
+        long frac = r % scale;
+        for (long d = scale / 10; d > 0; d /= 10) {
+            buf.put((byte) ('0' + frac / d));
+            frac %= d;
+        }
+    }
+
+    static void putLong(ByteBuffer buf, long v, byte[] digits) {
+        if (v < 0) {
+            buf.put((byte) '-');
+            if (v == Long.MIN_VALUE) {
+                buf.put("9223372036854775808".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            v = -v;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        while (n > 0) buf.put(digits[--n]);
+    }
+
+    // java simulator.ScenarioExporter <out.csv|out.ripx> [scenarios] [yearsAhead] [seed] [threads]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: ScenarioExporter <out.csv|out.ripx> [scenarios] [yearsAhead] [seed] [threads]");
+            return;
+        }
+        Path out = Path.of(args[0]);
+        long scenarios = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int years = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        EnsembleEngine engine = EnsembleEngine.withDefaultUncertainty();
+        ScenarioExporter exporter = new ScenarioExporter(formatFor(out)).withThreads(threads);
+        long start = System.nanoTime();
+        long rows = exporter.export(out, scenarios, years, (s, params, offset) -> engine.sample(seed, s, params, offset));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = out.toFile().length();
+        System.err.printf("%d rows, %.1f MB in %.2f s (%.1f MB/s)%n",
+                rows, bytes / 1e6, seconds, bytes / 1e6 / seconds);
+    }
+}
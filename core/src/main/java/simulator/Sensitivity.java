@@ -0,0 +1,138 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Forward-mode automatic differentiation of the enrollment model: every intermediate
+ * value is carried as a dual number (value plus its tangent over all spec parameters),
+ * so one pass over the spec's terms yields the projected shares and their full gradient
+ * with respect to every weight and multiplier, in place of two projections per
+ * parameter for central differences.
+ *
+ * Tangents live in primitive arrays sized at construction; evaluate() allocates
+ * nothing. Clamped shares (outside [0, 100]) have a zero derivative, as the model does.
+ *
+ * Not thread-safe: the scratch tangents belong to the instance, so use one per thread.
+ * The evaluator it reads from can be shared.
+ */
+public final class Sensitivity {
+
+    private final EnrollmentModel model;
+    private final FactorSpec spec;
+    private final int parameters;
+    private final int terms;
+
+    // Dual weighted coefficient of each term: value and tangent [term * parameters + p]
+    private final double[] coef;
+    private final double[] coefTangent;
+    // Year-invariant term values (growth and constants); series terms are read per year
+    private final double[] invariant;
+    // Dual stage sums for the year being evaluated
+    private final double[] scaledTangent, adjustmentTangent;
+
+    public Sensitivity(EnrollmentEvaluator evaluator) {
+        this.model = evaluator.model;
+        this.spec = model.spec;
+        this.parameters = spec.parameterCount();
+        this.terms = spec.termEnd(spec.factorCount() - 1);
+        this.coef = new double[terms];
+        this.coefTangent = new double[terms * parameters];
+        this.invariant = new double[terms];
+        this.scaledTangent = new double[parameters];
+        this.adjustmentTangent = new double[parameters];
+    }
+
+    public FactorSpec spec() {
+        return spec;
+    }
+
+    // Gap per year over [startYear, startYear + m) and its gradient,
+    // dGap[yearIndex * spec().parameterCount() + p]
+    public void evaluate(ParameterSnapshot params, int startYear, int m, double[] gap, double[] dGap) {
+        if (params.spec() != spec) {
+            throw new IllegalArgumentException("Snapshot was made for a different factor spec");
+        }
+        evaluate(params.values, 0, startYear, m, null, gap, null, dGap);
+    }
+
+    // One flat parameter vector at params[offset ..]; any of the outputs may be null.
+    // Shares and gap match EnrollmentModel.calculateBatch, gradients are laid out
+    // [yearIndex * parameters + p].
+    void evaluate(double[] params, int offset, int startYear, int m,
+                  double[] female, double[] gap, double[] dFemale, double[] dGap) {
+        HistoricalData data = model.historicalData;
+        int np = parameters;
+        seedCoefficients(params, offset);
+        for (int t = 0; t < terms; t++) {
+            if (spec.termKind(t) != FactorSpec.SERIES) invariant[t] = spec.termValue(t, data, startYear);
+        }
+        double scale = spec.scale();
+        double bf = model.baseFemale, bm = model.baseMale;
+
+        for (int y = 0; y < m; y++) {
+            int year = startYear + y;
+
+            // Stage sums: sum of coefficient x term value; the term values are constants,
+            // so each tangent is the coefficient tangent scaled by the same value
+            double scaled = 0, adjustment = 0;
+            Arrays.fill(scaledTangent, 0);
+            Arrays.fill(adjustmentTangent, 0);
+            for (int f = 0; f < spec.factorCount(); f++) {
+                boolean isScaled = spec.scaled(f);
+                double[] tangent = isScaled ? scaledTangent : adjustmentTangent;
+                for (int t = spec.termStart(f); t < spec.termEnd(f); t++) {
+                    double x = spec.termKind(t) == FactorSpec.SERIES ? spec.termValue(t, data, year) : invariant[t];
+                    if (isScaled) scaled += coef[t] * x;
+                    else adjustment += coef[t] * x;
+                    int base = t * np;
+                    for (int p = 0; p < np; p++) tangent[p] += coefTangent[base + p] * x;
+                }
+            }
+
+            // totalGap = scaled * scale * yearFactor + adjustment
+            double k = scale * EnrollmentModel.yearFactor(year);
+            double totalGap = scaled * k + adjustment;
+
+            // Shares: the total (bf + g) + (bm - g) has a zero tangent, so each share's
+            // tangent is +-100 / total times the gap's; clamping zeroes it
+            double fRaw = bf + totalGap;
+            double mRaw = bm - totalGap;
+            double total = fRaw + mRaw;
+            double fPct = (fRaw / total) * 100;
+            double mPct = (mRaw / total) * 100;
+            double f = Math.max(0, Math.min(100, fPct));
+            double ml = Math.max(0, Math.min(100, mPct));
+            double fSlope = f == fPct ? 100 / total : 0;
+            double mSlope = ml == mPct ? -100 / total : 0;
+
+            if (female != null) female[y] = f;
+            if (gap != null) gap[y] = f - ml;
+            int o = y * np;
+            for (int p = 0; p < np; p++) {
+                double dTotalGap = scaledTangent[p] * k + adjustmentTangent[p];
+                if (dFemale != null) dFemale[o + p] = fSlope * dTotalGap;
+                if (dGap != null) dGap[o + p] = (fSlope - mSlope) * dTotalGap;
+            }
+        }
+    }
+
+    // Dual weighted coefficient per term: coef x multiplier x weight, seeded with
+    // d(param i)/d(param j) = [i == j]
+    private void seedCoefficients(double[] params, int offset) {
+        int np = parameters;
+        Arrays.fill(coefTangent, 0);
+        for (int f = 0; f < spec.factorCount(); f++) {
+            int w = spec.weightIndex(f);
+            for (int t = spec.termStart(f); t < spec.termEnd(f); t++) {
+                int mult = spec.termMultiplier(t);
+                double c = spec.termCoefficient(t);
+                double mv = mult < 0 ? 1 : params[offset + mult];
+                double wv = w < 0 ? 1 : params[offset + w];
+                coef[t] = c * mv * wv;
+                // Product rule; a parameter that is both multiplier and weight gets both parts
+                if (mult >= 0) coefTangent[t * np + mult] += c * wv;
+                if (w >= 0) coefTangent[t * np + w] += c * mv;
+            }
+        }
+    }
+}
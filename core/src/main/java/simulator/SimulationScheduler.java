@@ -0,0 +1,246 @@
+package simulator;
+
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs projections off the UI thread.
+ *
+ * Requests are parameter snapshots; a burst of requests collapses to the newest one.
+ * Every result newer than the last one applied is delivered, even if the sliders have
+ * moved on meanwhile, so a continuous drag keeps the charts moving instead of waiting for
+ * it to stop; only results older than one already completed are dropped. At most one
+ * delivery is outstanding on the UI executor (Platform::runLater for JavaFX) at a time.
+ */
+public class SimulationScheduler {
+
+    static final int CACHE_CAPACITY = 4096;
+
+    private static final class Request {
+        final ParameterSnapshot params;
+        final int yearsAhead;
+        final DynamicProjection.Step step;  // null = the static model
+        final long generation;
+
+        Request(ParameterSnapshot params, int yearsAhead, DynamicProjection.Step step, long generation) {
+            this.params = params;
+            this.yearsAhead = yearsAhead;
+            this.step = step;
+            this.generation = generation;
+        }
+    }
+
+    private static final class Outcome {
+        final Update update;
+        final long generation;
+
+        Outcome(Update update, long generation) {
+            this.update = update;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * One delivered result: the projection and the modeled history (backcast) for the same
+     * snapshot, so a chart joining the two never mixes slider positions.
+     */
+    public static final class Update {
+        public final List<EnrollmentResult> results;
+        // Years [backcastStart, backcastStart + backcastFemale.length), ending before the projection
+        public final int backcastStart;
+        public final double[] backcastFemale;
+        public final double[] backcastMale;
+
+        Update(List<EnrollmentResult> results, int backcastStart, double[] backcastFemale, double[] backcastMale) {
+            this.results = results;
+            this.backcastStart = backcastStart;
+            this.backcastFemale = backcastFemale;
+            this.backcastMale = backcastMale;
+        }
+    }
+
+    // Only touched from the worker thread
+    private final Simulator simulator;
+    private final IncrementalProjection projection;
+    private final DynamicProjection dynamic;
+    private final EnrollmentEvaluator evaluator;
+    private final int backcastStart;
+    private final Consumer<Update> onResult;
+    private final Executor uiExecutor;
+    private ParameterSnapshot lastParams;
+    private final BitSet changed;  // scratch for changedParameters
+    private int lastYearsAhead = -1;
+    private long lastCompleted;
+    private int dataVersion;  // model.historicalData.version() the cached results were made from
+
+    // Only touched on the UI executor
+    private long lastApplied;
+
+    // Thread-safe; also read by the UI thread
+    private final FactorSpec spec;
+    private final ScenarioCache<List<EnrollmentResult>> cache = new ScenarioCache<>(CACHE_CAPACITY);
+    private final MetricsRegistry metrics;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Request> pending = new AtomicReference<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicReference<Outcome> completed = new AtomicReference<>();
+    private final AtomicBoolean posted = new AtomicBoolean();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "simulation-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // onResult runs on uiExecutor
+    public SimulationScheduler(Simulator simulator, Executor uiExecutor, Consumer<List<EnrollmentResult>> onResult) {
+        this(simulator, simulator.currentYear, uiExecutor, update -> onResult.accept(update.results));
+    }
+
+    // ... each result also carrying the backcast from backcastStart up to the current year
+    public SimulationScheduler(Simulator simulator, int backcastStart, Executor uiExecutor, Consumer<Update> onResult) {
+        if (backcastStart > simulator.currentYear) {
+            throw new IllegalArgumentException("backcastStart must be <= " + simulator.currentYear);
+        }
+        this.simulator = simulator;
+        this.spec = simulator.model.spec;
+        this.metrics = new MetricsRegistry(spec);
+        this.dataVersion = simulator.model.historicalData.version();
+        this.changed = new BitSet(spec.parameterCount());
+        this.projection = new IncrementalProjection(simulator.model, simulator.currentYear);
+        this.evaluator = new EnrollmentEvaluator(spec, simulator.model.historicalData);
+        this.dynamic = new DynamicProjection(evaluator);
+        this.backcastStart = backcastStart;
+        this.uiExecutor = uiExecutor;
+        this.onResult = onResult;
+    }
+
+    // Called on the UI thread with the latest published snapshot; immutable, so no copy
+    public void submit(ParameterSnapshot params, int yearsAhead) {
+        submit(params, yearsAhead, null);
+    }
+
+    // ... stepped through time with feedback (DynamicProjection) unless step is null
+    public void submit(ParameterSnapshot params, int yearsAhead, DynamicProjection.Step step) {
+        if (params.spec() != spec) {
+            throw new IllegalArgumentException("Snapshot was made for a different factor spec");
+        }
+        long gen = generation.incrementAndGet();
+        pending.set(new Request(params, yearsAhead, step, gen));
+        if (draining.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Results for slider positions seen before; safe to read from any thread
+    public ScenarioCache<List<EnrollmentResult>> cache() {
+        return cache;
+    }
+
+    public MetricsRegistry metrics() {
+        return metrics;
+    }
+
+    private void drain() {
+        try {
+            Request request;
+            while ((request = pending.getAndSet(null)) != null) {
+                // Superseded only by a result that has actually completed
+                if (request.generation <= lastCompleted) continue;
+                // The data was reloaded (between projections, see Simulator): drop every
+                // result and term effect computed from the old series
+                int version = simulator.model.historicalData.version();
+                if (version != dataVersion) {
+                    projection.invalidate();
+                    cache.clear();
+                    dataVersion = version;
+                }
+                // Revisited slider positions come from the cache; otherwise only the
+                // factors whose sliders moved are re-evaluated
+                int yearsAhead = request.yearsAhead;
+                SimulatorEvents.Recompute event = new SimulatorEvents.Recompute();
+                event.begin();
+                boolean measure = metrics.enabled() || event.isEnabled();
+                long startNanos = measure ? System.nanoTime() : 0;
+                long startBytes = measure ? MetricsRegistry.threadAllocatedBytes() : 0;
+                long hits = measure ? cache.hits() : 0;
+
+                // Time-stepped runs bypass the cache (keyed without the step); one scenario is
+                // a few thousand steps even at 500 years monthly
+                List<EnrollmentResult> results = request.step != null
+                        ? dynamic.withStep(request.step).project(request.params, simulator.currentYear, yearsAhead)
+                        : cache.computeIfAbsent(request.params.values, yearsAhead,
+                                canonical -> List.copyOf(projection.project(canonical, yearsAhead)));
+
+                if (measure) {
+                    long nanos = System.nanoTime() - startNanos;
+                    long allocated = startBytes < 0 ? -1 : MetricsRegistry.threadAllocatedBytes() - startBytes;
+                    changedParameters(request.params);
+                    metrics.recordRecompute(nanos, allocated, changed, yearsAhead != lastYearsAhead);
+                    event.yearsAhead = yearsAhead;
+                    event.changedParameters = changed.cardinality();
+                    event.cacheHit = cache.hits() != hits;
+                    event.allocated = allocated;
+                    event.commit();
+                }
+                lastParams = request.params;
+                lastYearsAhead = yearsAhead;
+                lastCompleted = request.generation;
+                publish(new Outcome(withBackcast(results, request.params), request.generation));
+            }
+        } finally {
+            draining.set(false);
+            // A request may have slipped in after the last poll
+            if (pending.get() != null && draining.compareAndSet(false, true)) {
+                worker.execute(this::drain);
+            }
+        }
+    }
+
+    // The history is a few dozen years of one batch; fresh arrays, as they cross to the UI thread
+    private Update withBackcast(List<EnrollmentResult> results, ParameterSnapshot params) {
+        int h = simulator.currentYear - backcastStart;
+        double[] female = new double[h], male = new double[h];
+        if (h > 0) evaluator.project(params, backcastStart, h, female, male, new double[h]);
+        return new Update(results, backcastStart, female, male);
+    }
+
+    // Sets bit i of changed when parameter i differs from the last drained request
+    private void changedParameters(ParameterSnapshot params) {
+        changed.clear();
+        for (int i = 0; i < params.size(); i++) {
+            if (lastParams == null || params.get(i) != lastParams.get(i)) changed.set(i);
+        }
+    }
+
+    // Keeps the newest outcome if one not yet delivered is already waiting
+    private void publish(Outcome outcome) {
+        completed.accumulateAndGet(outcome, (waiting, next) ->
+                waiting == null || next.generation > waiting.generation ? next : waiting);
+        if (posted.compareAndSet(false, true)) {
+            uiExecutor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        posted.set(false);
+        Outcome outcome = completed.getAndSet(null);
+        if (outcome != null && outcome.generation > lastApplied) {
+            lastApplied = outcome.generation;
+            onResult.accept(outcome.update);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projects an EnrollmentModel forward from the current year.
+ */
+public class Simulator {
+    // Last year with observed data; where projections start unless currentYear is changed
+    public static final int START_YEAR = 2024;
+
+    public EnrollmentModel model = new EnrollmentModel();
+    public int currentYear = START_YEAR;
+    // Optional; null projects every request from scratch
+    ScenarioCache<List<EnrollmentResult>> cache;
+    // Cache misses evaluate through this, never through the shared model; rebuilt (and the
+    // cache cleared) once model.historicalData has changed since it was made
+    private EnrollmentEvaluator evaluator;
+    private int evaluatorVersion;
+
+    public Simulator withCache(ScenarioCache<List<EnrollmentResult>> cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    public List<EnrollmentResult> runProjection(int yearsAhead) {
+        SimulatorEvents.RunProjection event = new SimulatorEvents.RunProjection();
+        event.begin();
+        List<EnrollmentResult> results = new ArrayList<>();
+        for (int i = 0; i <= yearsAhead; i++) {
+            results.add(model.calculateEnrollment(currentYear + i));
+        }
+        event.yearsAhead = yearsAhead;
+        event.commit();
+        return results;
+    }
+
+    // Applies a full parameter vector (spec layout) and projects it. With a cache set the
+    // model is left alone: misses go through a stateless evaluator, so threads sharing this
+    // simulator's cache do not race on the model's parameters
+    public List<EnrollmentResult> runProjection(double[] params, int yearsAhead) {
+        if (cache == null) {
+            model.setParameters(params, 0);
+            return runProjection(yearsAhead);
+        }
+        EnrollmentEvaluator evaluator = evaluator();
+        int m = yearsAhead + 1;
+        return cache.computeIfAbsent(params, yearsAhead, canonical -> {
+            double[] female = new double[m], male = new double[m], gap = new double[m];
+            evaluator.evaluateBatch(canonical, 1, currentYear, m, female, male, gap);
+            List<EnrollmentResult> results = new ArrayList<>(m);
+            for (int y = 0; y < m; y++) results.add(new EnrollmentResult(currentYear + y, female[y], male[y]));
+            return List.copyOf(results);
+        });
+    }
+
+    // Reloading the data while projections are running is not supported (HistoricalData
+    // is not thread-safe); a reload between calls clears results cached for the old data
+    private synchronized EnrollmentEvaluator evaluator() {
+        int version = model.historicalData.version();
+        if (evaluator == null || version != evaluatorVersion) {
+            if (evaluator != null) cache.clear();
+            evaluator = new EnrollmentEvaluator(model.spec, model.historicalData);
+            evaluatorVersion = version;
+        }
+        return evaluator;
+    }
+}
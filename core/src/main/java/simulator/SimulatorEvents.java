@@ -0,0 +1,84 @@
+package simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom Flight Recorder events for the update path. Record with e.g.
+ *   java -XX:StartFlightRecording=filename=sim.jfr,settings=profile ...
+ * and open the "Simulator" category in JDK Mission Control.
+ *
+ * When no recording is running, begin()/commit() are no-ops the JIT removes, so the
+ * events stay in place permanently. CalculateEnrollment fires once per projected year
+ * and is disabled by default; enable it with simulator.CalculateEnrollment#enabled=true.
+ */
+public final class SimulatorEvents {
+
+    private SimulatorEvents() {
+    }
+
+    @Name("simulator.UpdateSimulation")
+    @Label("Update Simulation")
+    @Category("Simulator")
+    @Description("Slider snapshot taken on the FX thread and handed to the scheduler")
+    @StackTrace(false)
+    public static final class UpdateSimulation extends Event {
+        @Label("Years Ahead")
+        public int yearsAhead;
+    }
+
+    @Name("simulator.Recompute")
+    @Label("Recompute")
+    @Category("Simulator")
+    @Description("Projection of one parameter snapshot on the simulation worker")
+    @StackTrace(false)
+    static final class Recompute extends Event {
+        @Label("Years Ahead")
+        int yearsAhead;
+
+        @Label("Changed Parameters")
+        int changedParameters;
+
+        @Label("Cache Hit")
+        boolean cacheHit;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("simulator.RunProjection")
+    @Label("Run Projection")
+    @Category("Simulator")
+    @StackTrace(false)
+    static final class RunProjection extends Event {
+        @Label("Years Ahead")
+        int yearsAhead;
+    }
+
+    @Name("simulator.CalculateEnrollment")
+    @Label("Calculate Enrollment")
+    @Category("Simulator")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CalculateEnrollment extends Event {
+        @Label("Year")
+        int year;
+    }
+
+    @Name("simulator.ChartRefresh")
+    @Label("Chart Refresh")
+    @Category("Simulator")
+    @Description("Applying a result to the labels and chart series on the FX thread")
+    @StackTrace(false)
+    public static final class ChartRefresh extends Event {
+        @Label("Points")
+        public int points;
+    }
+}
@@ -0,0 +1,75 @@
+# Factor specification for EnrollmentModel (compiled by FactorSpec at load time).
+#
+#   scale <value>
+#       Multiplier applied to the sum of the scaled factors (before the 1980-2000 ramp).
+#
+#   parameter <key> weight|multiplier <default> <min> <max> "<label>"
+#       Parameters form the flat double[] layout in declaration order; the UI builds one
+#       slider per parameter. The order must match the Parameter enum.
+#
+#   factor <name> [weight=<parameter>] [unscaled]
+#       Effect = sum of its terms, times the weight parameter if one is given. Scaled
+#       factors are summed and multiplied by `scale` and the ramp; unscaled factors are
+#       added afterwards.
+#
+#   term series <series key> <coefficient> [<multiplier>]    coefficient x value(year)
+#   term growth <series key> <from> <to> <coefficient> [<multiplier>]
+#                                                             coefficient x (v(to) - v(from)) / v(from)
+#   term const <coefficient> [<multiplier>]                   coefficient
+#
+#   feedback <factor> <gain> <years>
+#       Time-stepped projection only (DynamicProjection). The factor's effect (before its
+#       weight) is shifted by a state that relaxes towards gain x (gap - starting gap),
+#       gap in percentage points, with time constant <years>. Factors must come first.
+#
+# Coefficients may be written as products/quotients of numbers, e.g. 2.5/100.
+# Series keys are the HistoricalData.Series keys.
+
+scale 0.38
+
+parameter hsPerformance        weight     0.28 0 1 "HS Performance"
+parameter wagePremium          weight     0.22 0 1 "Wage Premium"
+parameter fieldJobAvailability weight     0.15 0 1 "Field/Job Availability"
+parameter culturalPolitical    weight     0.35 0 1 "Cultural/Political"
+
+parameter hsGradGap            multiplier 1.0  0 2 "HS Graduation Gap"
+parameter wagePremiumFemale    multiplier 1.0  0 2 "Female Wage Premium"
+parameter wagePremiumMale      multiplier 1.0  0 2 "Male Wage Premium"
+parameter healthcareGrowth     multiplier 1.0  0 2 "Healthcare Growth"
+parameter stemGrowth           multiplier 1.0  0 2 "STEM Growth"
+parameter nonCollegeMaleJobs   multiplier 1.0  0 2 "Non-College Male Job Availability"
+parameter culturalShift        multiplier 1.0  0 2 "Cultural Shift"
+
+# HS graduation is a hard prerequisite - a 7-point HS gap should translate to a larger
+# college gap, so the gap is amplified 2.5x
+factor hsPerformance weight=hsPerformance
+term series hsGraduation.female  2.5/100 hsGradGap
+term series hsGraduation.male   -2.5/100 hsGradGap
+
+factor wagePremium weight=wagePremium
+term series wagePremium.female  1/100 wagePremiumFemale
+term series wagePremium.male   -1/100 wagePremiumMale
+
+# Growth is always measured between the fixed 1980 and 2024 endpoints:
+# (0.75 x healthcare growth - 0.30 x STEM growth) x 0.5
+factor fieldJobAvailability weight=fieldJobAvailability
+term growth jobGrowth.healthcare 1980 2024  0.75*0.5 healthcareGrowth
+term growth jobGrowth.stem       1980 2024 -0.30*0.5 stemGrowth
+
+# Political liberalization gender gap as the cultural proxy: female 20% -> 44% (+24),
+# male 23% -> 32% (+9), differential 0.15; amplified 2x and damped by 0.6
+factor culturalPolitical weight=culturalPolitical
+term const 0.15*2.0*0.6 culturalShift
+
+# Non-college male job availability relative to the 1980 baseline (23.8M, mfg + const):
+# (jobs / 23.8 x multiplier - 1) x 0.08. More jobs -> fewer men attend college -> wider gap.
+factor nonCollegeMaleJobs unscaled
+term series jobGrowth.nonCollegeMale 0.08/23.8 nonCollegeMaleJobs
+term const -0.08
+
+# Enrollment feeding back into the labor market. A wider gap means more female graduates
+# compressing the female wage premium and scarcer male graduates raising theirs
+# (balancing, ~8 years), and employers in female-dominated fields expanding as the
+# graduate pool shifts (reinforcing, ~15 years).
+feedback wagePremium          -0.01  8
+feedback fieldJobAvailability  0.005 15
@@ -0,0 +1,77 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalibrationTest {
+
+    @Test
+    void gradientMatchesCentralDifferences() {
+        Calibration calibration = Calibration.againstHistory();
+        FactorSpec spec = FactorSpec.builtIn();
+        SplittableRandom rng = new SplittableRandom(7);
+        double[] grad = new double[spec.parameterCount()];
+        double worst = 0;
+        for (int trial = 0; trial < 20; trial++) {
+            // Interior points, so both difference steps stay inside the slider ranges
+            double[] params = new double[spec.parameterCount()];
+            for (int j = 0; j < params.length; j++) {
+                params[j] = spec.min(j) + (spec.max(j) - spec.min(j)) * (0.05 + 0.9 * rng.nextDouble());
+            }
+            double f = calibration.objective(params, grad);
+            assertEquals(calibration.objective(params), f, 1e-9 * Math.abs(f));
+
+            for (int j = 0; j < params.length; j++) {
+                double h = 1e-5 * (spec.max(j) - spec.min(j));
+                double[] up = params.clone(), down = params.clone();
+                up[j] += h;
+                down[j] -= h;
+                double central = (calibration.objective(up) - calibration.objective(down)) / (2 * h);
+                double error = Math.abs(grad[j] - central) / Math.max(Math.abs(central), 1e-3 * Math.abs(f));
+                worst = Math.max(worst, error);
+            }
+        }
+        assertTrue(worst < 1e-6, "worst relative error " + worst);
+    }
+
+    @Test
+    void refinementReachesABoundConstrainedStationaryPoint() {
+        Calibration calibration = Calibration.againstHistory().withStarts(2, 1980).withRefinementSteps(50);
+        Calibration.Fit refined = calibration.fit();
+        FactorSpec spec = FactorSpec.builtIn();
+        double[] grad = new double[spec.parameterCount()];
+        double objective = calibration.objective(refined.params, grad);
+        for (int j = 0; j < grad.length; j++) {
+            double x = refined.params[j];
+            boolean held = (x <= spec.min(j) && grad[j] > 0) || (x >= spec.max(j) && grad[j] < 0);
+            if (!held) assertEquals(0, grad[j], 1e-6, spec.key(j));
+        }
+
+        Calibration simplexOnly = Calibration.againstHistory().withStarts(2, 1980);
+        assertTrue(objective <= simplexOnly.objective(simplexOnly.fit().params));
+    }
+
+    @Test
+    void fitsTheGivenSpecAndData() {
+        HistoricalData data = new HistoricalData();
+        data.setKnots(HistoricalData.Series.ENROLLMENT_FEMALE_SHARE,
+                new double[] {1990, 2000, 2010, 2020}, new double[] {50, 55, 58, 60});
+        data.setKnots(HistoricalData.Series.HS_GRADUATION_FEMALE, new double[] {1980, 2024}, new double[] {60, 95});
+        Calibration.Fit fit = Calibration.againstHistory(FactorSpec.builtIn(), data)
+                .withStarts(1, 1980).withMaxEvaluations(200).fit();
+        assertArrayEquals(new double[] {1990, 2000, 2010, 2020}, fit.years);
+        assertArrayEquals(new double[] {50, 55, 58, 60}, fit.observed);
+
+        // The modeled shares are projected from the same data, not the built-in series
+        double[] female = new double[31], male = new double[31], gap = new double[31];
+        new EnrollmentEvaluator(FactorSpec.builtIn(), data).evaluateBatch(fit.params, 1, 1990, 31, female, male, gap);
+        for (int i = 0; i < fit.years.length; i++) {
+            assertEquals(female[(int) fit.years[i] - 1990], fit.modeled[i], 1e-12);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarDatasetTest {
+
+    @TempDir
+    Path dir;
+
+    private Path csv(String... rows) throws IOException {
+        Path csv = dir.resolve("series.csv");
+        Files.writeString(csv, "series,state,year,value\n" + String.join("\n", rows) + "\n");
+        return csv;
+    }
+
+    @Test
+    void convertsAndLeavesMissingYearsNaN() throws IOException {
+        Path out = dir.resolve("series.ripc");
+        ColumnarDataset.convertCsv(csv("a,CA,2020,1.5", "a,CA,2022,2.5", "", "a,NY,2020,NaN"), out);
+        try (ColumnarDataset data = ColumnarDataset.open(out)) {
+            assertEquals(2, data.size());
+            assertEquals(1.5, data.value("a/CA", 2020));
+            assertTrue(Double.isNaN(data.value("a/CA", 2021)));
+            assertEquals(2.5, data.value("a/CA", 2022));
+            assertTrue(Double.isNaN(data.value("a/NY", 2020)));
+        }
+    }
+
+    @Test
+    void rejectsBadRowsNamingTheLine() throws IOException {
+        assertFails("line 3: duplicate row for a/CA in 2020", "a,CA,2020,1", "a,CA,2020,2");
+        assertFails("line 3: duplicate row for a/CA in 2020", "a,CA,2020,NaN", "a,CA,2020,2");
+        assertFails("line 2: expected 4 fields, found 3", "a,2020,1");
+        assertFails("line 3: expected 4 fields, found 5", "a,CA,2020,1", "a,CA,2021,1,x");
+        assertFails("line 2: bad year 'x'", "a,CA,x,1");
+        assertFails("line 2: bad value ''", "a,CA,2020,");
+    }
+
+    private void assertFails(String message, String... rows) throws IOException {
+        Path csv = csv(rows);
+        IOException e = assertThrows(IOException.class, () -> ColumnarDataset.convertCsv(csv, dir.resolve("bad.ripc")));
+        assertEquals(csv + " " + message, e.getMessage());
+    }
+}
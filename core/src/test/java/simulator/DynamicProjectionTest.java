@@ -0,0 +1,79 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DynamicProjectionTest {
+
+    private static final int SCENARIOS = 37;  // not a multiple of the lane count
+    private static final int YEARS = 120;
+    private static final int M = YEARS + 1;
+
+    private final EnrollmentEvaluator evaluator = new EnrollmentEvaluator();
+
+    private static double[] sampledParameters() {
+        int stride = FactorSpec.builtIn().parameterCount();
+        double[] params = new double[SCENARIOS * stride];
+        EnsembleEngine engine = EnsembleEngine.withDefaultUncertainty();
+        for (int s = 0; s < SCENARIOS; s++) engine.sample(7, s, params, s * stride);
+        return params;
+    }
+
+    @Test
+    void withoutFeedbackEveryStepMatchesCalculateBatch() {
+        double[] params = sampledParameters();
+        double[] female = new double[SCENARIOS * M], male = new double[SCENARIOS * M], gap = new double[SCENARIOS * M];
+        evaluator.evaluateBatch(params, SCENARIOS, 2024, M, female, male, gap);
+
+        for (DynamicProjection.Step step : DynamicProjection.Step.values()) {
+            double[] f = new double[SCENARIOS * M], m = new double[SCENARIOS * M], g = new double[SCENARIOS * M];
+            new DynamicProjection(evaluator).withStep(step).withFeedback(false).run(params, SCENARIOS, 2024, YEARS, f, m, g);
+            assertArrayEquals(female, f, 1e-12, step.name());
+            assertArrayEquals(male, m, 1e-12, step.name());
+            assertArrayEquals(gap, g, 1e-12, step.name());
+        }
+    }
+
+    @Test
+    void resultsDoNotDependOnPoolOrLeafSize() {
+        double[] params = sampledParameters();
+        double[] reference = new double[SCENARIOS * M], f = new double[SCENARIOS * M], m = new double[SCENARIOS * M];
+        DynamicProjection serial = new DynamicProjection(evaluator).withStep(DynamicProjection.Step.MONTHLY)
+                .withLeafSize(SCENARIOS);
+        serial.run(params, SCENARIOS, 2024, YEARS, f, m, reference);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int leafSize : new int[] {1, 3, 16, 17}) {
+                double[] gap = new double[SCENARIOS * M];
+                new DynamicProjection(evaluator).withStep(DynamicProjection.Step.MONTHLY).withPool(pool)
+                        .withLeafSize(leafSize).run(params, SCENARIOS, 2024, YEARS, f, m, gap);
+                assertArrayEquals(reference, gap, 0, "leaf size " + leafSize);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // And a reused instance gives the same answer on a second, shorter run
+        double[] gap = new double[SCENARIOS * 11];
+        serial.run(params, SCENARIOS, 2024, 10, new double[SCENARIOS * 11], new double[SCENARIOS * 11], gap);
+        for (int s = 0; s < SCENARIOS; s++) {
+            for (int y = 0; y < 11; y++) assertEquals(reference[s * M + y], gap[s * 11 + y], 0);
+        }
+    }
+
+    @Test
+    void feedbackMovesTheGap() {
+        double[] params = evaluator.spec().defaults();
+        double[] f = new double[M], m = new double[M], withLoops = new double[M], without = new double[M];
+        new DynamicProjection(evaluator).run(params, 1, 2024, YEARS, f, m, withLoops);
+        new DynamicProjection(evaluator).withFeedback(false).run(params, 1, 2024, YEARS, f, m, without);
+        assertEquals(without[0], withLoops[0], 1e-12);
+        assertTrue(Math.abs(withLoops[YEARS] - without[YEARS]) > 1e-3);
+    }
+}
@@ -0,0 +1,39 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EnsembleEngineTest {
+
+    private static final long SCENARIOS = 5_000;
+    private static final int YEARS_AHEAD = 10;
+    private static final double[] QUANTILES = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
+
+    private static EnsembleEngine.EnsembleResult run(int threads, int leafSize) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return EnsembleEngine.withDefaultUncertainty().withPool(pool).withLeafSize(leafSize)
+                    .run(SCENARIOS, YEARS_AHEAD, 2024);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void bandsDoNotDependOnThreadsOrSplits() {
+        // Leaves that are not a multiple of the evaluation block, so splits land mid-block
+        EnsembleEngine.EnsembleResult single = run(1, 300);
+        for (EnsembleEngine.EnsembleResult other : new EnsembleEngine.EnsembleResult[] {run(8, 300), run(8, 37)}) {
+            assertEquals(single.toTable(), other.toTable());
+            for (EnsembleEngine.Metric metric : EnsembleEngine.Metric.values()) {
+                for (double q : QUANTILES) {
+                    assertArrayEquals(single.band(metric, q), other.band(metric, q), 0, metric + " q=" + q);
+                }
+            }
+        }
+    }
+}
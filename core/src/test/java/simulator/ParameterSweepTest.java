@@ -0,0 +1,63 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParameterSweepTest {
+
+    @Test
+    void additiveLinearModelHasItsVarianceShares() {
+        ParameterSweep sweep = ParameterSweep.gapDrivers();
+        int d = sweep.dimensions();
+        double[] c = {1, 2, 3, 0, 0.5};
+        assertEquals(d, c.length);
+        double sumSq = 0;
+        for (double cj : c) sumSq += cj * cj;
+
+        // gap = sum c_j u_j on the unit design: Var(c_j u_j) = c_j^2 / 12, no interactions
+        int n = 1 << 12;
+        double[] points = sweep.saltelliDesign(n);
+        ParameterSweep.SweepResult r = new ParameterSweep.SweepResult(points.length / d, 1, 2024);
+        for (int i = 0; i < r.n; i++) {
+            for (int j = 0; j < d; j++) r.gap[i] += c[j] * points[i * d + j];
+        }
+        ParameterSweep.SobolIndices indices = sweep.sobolIndices(n, r);
+        for (int j = 0; j < d; j++) {
+            double share = c[j] * c[j] / sumSq;
+            assertEquals(share, indices.firstOrder[0][j], 0.01, sweep.factors[j]);
+            assertEquals(share, indices.totalOrder[0][j], 0.01, sweep.factors[j]);
+        }
+    }
+
+    @Test
+    void firstSobolPointsMatchJoeKuo() {
+        ParameterSweep.SobolSequence seq = new ParameterSweep.SobolSequence(3);
+        double[][] expected = {
+                {0, 0, 0}, {0.5, 0.5, 0.5}, {0.75, 0.25, 0.25}, {0.25, 0.75, 0.75},
+                {0.375, 0.375, 0.625}, {0.875, 0.875, 0.125}, {0.625, 0.125, 0.875}, {0.125, 0.625, 0.375}};
+        double[] point = new double[3];
+        for (int i = 0; i < expected.length; i++) {
+            seq.point(i, point, 0);
+            assertArrayEquals(expected[i], point, 0, "point " + i);
+        }
+    }
+
+    @Test
+    void everyDimensionStratifiesTheFirstPowerOfTwoPoints() {
+        int dims = ParameterSweep.SobolSequence.MAX_DIMENSIONS;
+        int n = 1 << 10;
+        ParameterSweep.SobolSequence seq = new ParameterSweep.SobolSequence(dims);
+        int[][] counts = new int[dims][n];
+        double[] point = new double[dims];
+        for (int i = 0; i < n; i++) {
+            seq.point(i, point, 0);
+            for (int j = 0; j < dims; j++) counts[j][(int) (point[j] * n)]++;
+        }
+        // Points 0 .. 2^k - 1 put exactly one coordinate in each interval of width 2^-k
+        for (int j = 0; j < dims; j++) {
+            for (int cell = 0; cell < n; cell++) assertEquals(1, counts[j][cell], "dimension " + j + ", cell " + cell);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package simulator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectionServerTest {
+
+    private ProjectionServer server;
+
+    // Status, content type and body of one exchange
+    private record Response(int statusCode, String contentType, String body) {
+    }
+
+    @BeforeEach
+    void start() throws IOException {
+        server = ProjectionServer.onLoopback(0);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    private Response get(String query) throws IOException {
+        return exchange(open(query), null);
+    }
+
+    private Response post(String body) throws IOException {
+        return exchange(open(""), body);
+    }
+
+    private HttpURLConnection open(String query) throws IOException {
+        URI uri = URI.create("http://" + server.address().getHostString() + ":" + server.address().getPort()
+                + "/projection" + query);
+        return (HttpURLConnection) uri.toURL().openConnection();
+    }
+
+    private static Response exchange(HttpURLConnection connection, String body) throws IOException {
+        try {
+            if (body != null) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                return new Response(status, connection.getContentType(),
+                        new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void projectsTheRequestedScenario() throws Exception {
+        Response response = get("?years=2&hsPerformance=0.3");
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.contentType());
+
+        double[] params = FactorSpec.builtIn().defaults();
+        params[Parameter.HS_PERFORMANCE_WEIGHT.index()] = 0.3;
+        int startYear = new Simulator().currentYear;
+        double[] female = new double[3], male = new double[3], gap = new double[3];
+        new EnrollmentEvaluator().evaluateBatch(params, 1, startYear, 3, female, male, gap);
+        String body = response.body();
+        assertTrue(body.startsWith("{\"startYear\":" + startYear + ",\"results\":["), body);
+        assertTrue(body.contains("{\"year\":" + (startYear + 2) + ",\"female\":" + Math.round(female[2] * 1e4) / 1e4), body);
+    }
+
+    @Test
+    void postAcceptsNestedWeightsAndMultipliers() throws Exception {
+        Response response = post("{\"weights\": {\"hsPerformance\": 0.3},"
+                + " \"multipliers\": {\"nonCollegeMaleJobs\": 0.8}, \"years\": 5}");
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(response.body().contains("\"year\":" + (new Simulator().currentYear + 5)), response.body());
+    }
+
+    @Test
+    void rejectsUnknownKeys() throws Exception {
+        Response response = get("?hsPerformanse=0.3");
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\":\"unknown parameter: hsPerformanse\"}\n", response.body());
+        assertEquals(400, post("{\"weights\": {\"nope\": 1}}").statusCode());
+    }
+
+    @Test
+    void rejectsOutOfRangeValues() throws Exception {
+        assertEquals(400, get("?hsPerformance=1.5").statusCode());
+        assertEquals(400, post("{\"multipliers\": {\"stemGrowth\": -0.1}}").statusCode());
+    }
+
+    @Test
+    void rejectsBadHorizons() throws Exception {
+        assertEquals(400, get("?years=2.5").statusCode());
+        assertEquals(400, get("?years=-1").statusCode());
+        assertEquals(400, get("?years=" + (ProjectionServer.MAX_YEARS_AHEAD + 1)).statusCode());
+        assertEquals(400, post("{\"years\": \"ten\"}").statusCode());
+        assertEquals(200, get("?years=" + ProjectionServer.MAX_YEARS_AHEAD).statusCode());
+    }
+
+    @Test
+    void escapesErrorMessages() throws Exception {
+        Response response = get("?a%5Cb%09c=1");
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\":\"unknown parameter: a\\\\b\\tc\"}\n", response.body());
+        assertEquals("\"q\\\"\\\\\\n\\u0001\"", ProjectionServer.jsonString("q\"\\\n\u0001"));
+    }
+
+    @Test
+    void rejectsMalformedBodies() throws Exception {
+        for (String body : new String[] {
+                "", "hsPerformance: 0.3", "[{\"years\": 5}]", "{\"years\": 5", "{\"years\": 5}}",
+                "{\"years\": 5} junk", "{\"years\": 5,}", "{\"years\" 5}", "{years: 5}", "{\"years\": 05}",
+                "{\"years\": [5]}", "{\"years\": true}", "{\"weights\": {\"hsPerformance\": {}}}",
+                "{\"hsPerformance\": {\"wagePremium\": 0.2}}", "{\"bad\\q\": 1}"}) {
+            Response response = post(body);
+            assertEquals(400, response.statusCode(), body);
+            assertTrue(response.body().startsWith("{\"error\":"), body);
+        }
+    }
+
+    @Test
+    void decodesEscapedKeys() throws Exception {
+        assertEquals(200, post("{\"hs\\u0050erformance\": 0.3, \"\\u0079ears\": 2}").statusCode());
+        Response response = post("{\"a\\\"b\": 1}");
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\":\"unknown parameter: a\\\"b\"}\n", response.body());
+    }
+
+    @Test
+    void parsersRejectBadValues() {
+        assertThrows(IllegalArgumentException.class, () -> ProjectionServer.parseJson("{\"years\": 1e400}", FactorSpec.builtIn(), FactorSpec.builtIn().defaults()));
+        assertThrows(IllegalArgumentException.class, () -> ProjectionServer.parseQuery(URI.create("/p?years=abc"), FactorSpec.builtIn(), FactorSpec.builtIn().defaults()));
+    }
+}
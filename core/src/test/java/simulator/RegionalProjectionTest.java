@@ -0,0 +1,62 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RegionalProjectionTest {
+
+    @TempDir
+    Path dir;
+
+    private ColumnarDataset dataset(String... rows) throws IOException {
+        Path csv = dir.resolve("regions.csv"), out = dir.resolve("regions.ripc");
+        Files.writeString(csv, "series,region,year,value\n" + String.join("\n", rows) + "\n");
+        ColumnarDataset.convertCsv(csv, out);
+        return ColumnarDataset.open(out);
+    }
+
+    @Test
+    void loadsParameterOverridesFromTheDataset() throws IOException {
+        EnrollmentModel national = new EnrollmentModel();
+        int culturalShift = national.spec.indexOf("culturalShift");
+        RegionalProjection.RegionalResult result;
+        try (ColumnarDataset data = dataset(
+                "param/culturalShift,CA,2020,0.4",
+                "param/culturalShift,CA,2024,1.8",
+                "population,CA,2024,1")) {
+            result = RegionalProjection.fromDataset(data, national).run(2024, 3);
+        }
+
+        double[] params = national.spec.defaults();
+        params[culturalShift] = 1.8;  // the last year's value
+        double[] female = new double[4], male = new double[4], gap = new double[4];
+        national.calculateBatch(params, 1, 2024, 4, female, male, gap);
+        assertArrayEquals(gap, result.gap, 1e-12);
+    }
+
+    @Test
+    void rejectsUnknownOrOutOfRangeParameters() throws IOException {
+        EnrollmentModel national = new EnrollmentModel();
+        try (ColumnarDataset data = dataset("param/noSuchSlider,CA,2024,1")) {
+            assertThrows(IllegalArgumentException.class, () -> RegionalProjection.fromDataset(data, national));
+        }
+        try (ColumnarDataset data = dataset("param/culturalShift,CA,2024,2.5")) {
+            assertThrows(IllegalArgumentException.class, () -> RegionalProjection.fromDataset(data, national));
+        }
+
+        RegionalProjection.Region region = new RegionalProjection(national).region("CA");
+        int culturalShift = national.spec.indexOf("culturalShift");
+        assertThrows(IllegalArgumentException.class, () -> region.override(culturalShift, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> region.override(culturalShift, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> region.override(national.spec.parameterCount(), 1));
+        assertEquals(region, region.override(culturalShift, 2.0));
+    }
+}
@@ -0,0 +1,52 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScenarioExporterTest {
+
+    private static final int SCENARIOS = 3;
+    private static final int YEARS_AHEAD = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void steppedExportMatchesTheDynamicProjection() throws IOException {
+        EnrollmentEvaluator evaluator = new EnrollmentEvaluator();
+        int stride = evaluator.spec().parameterCount();
+        double[] params = new double[SCENARIOS * stride];
+        EnsembleEngine engine = EnsembleEngine.withDefaultUncertainty();
+        for (int s = 0; s < SCENARIOS; s++) engine.sample(3, s, params, s * stride);
+
+        Path out = dir.resolve("stepped.csv");
+        new ScenarioExporter(ScenarioExporter.Format.CSV, evaluator)
+                .withStartYear(2030).withStep(DynamicProjection.Step.MONTHLY).withThreads(2)
+                .export(out, SCENARIOS, YEARS_AHEAD,
+                        (s, dst, offset) -> System.arraycopy(params, (int) s * stride, dst, offset, stride));
+
+        int m = YEARS_AHEAD + 1;
+        double[] female = new double[SCENARIOS * m], male = new double[SCENARIOS * m], gap = new double[SCENARIOS * m];
+        new DynamicProjection(evaluator).withStep(DynamicProjection.Step.MONTHLY)
+                .run(params, SCENARIOS, 2030, YEARS_AHEAD, female, male, gap);
+
+        List<String> lines = Files.readAllLines(out);
+        assertEquals(1 + SCENARIOS * m, lines.size());
+        for (int row = 1; row < lines.size(); row++) {
+            String[] fields = lines.get(row).split(",");
+            int s = Integer.parseInt(fields[0]);
+            int year = Integer.parseInt(fields[1 + stride]);
+            int k = s * m + year - 2030;
+            assertEquals(female[k], Double.parseDouble(fields[2 + stride]), 5e-5);
+            assertEquals(male[k], Double.parseDouble(fields[3 + stride]), 5e-5);
+            assertEquals(gap[k], Double.parseDouble(fields[4 + stride]), 5e-5);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class SimulationSchedulerTest {
+
+    private static final int YEARS_AHEAD = 10;
+
+    @Test
+    void reloadedDataReplacesCachedResults() throws InterruptedException {
+        Simulator simulator = new Simulator();
+        BlockingQueue<List<EnrollmentResult>> results = new LinkedBlockingQueue<>();
+        SimulationScheduler scheduler = new SimulationScheduler(simulator, Runnable::run, results::add);
+        try {
+            ParameterSnapshot params = ParameterSnapshot.defaults(simulator.model.spec);
+            scheduler.submit(params, YEARS_AHEAD);
+            assertNotNull(results.poll(10, TimeUnit.SECONDS));
+
+            simulator.model.historicalData.setKnots(HistoricalData.Series.HS_GRADUATION_FEMALE,
+                    new double[] {1980, 2024, 2040}, new double[] {60, 95, 99});
+            scheduler.submit(params, YEARS_AHEAD);
+            List<EnrollmentResult> reloaded = results.poll(10, TimeUnit.SECONDS);
+            assertNotNull(reloaded);
+
+            int m = YEARS_AHEAD + 1;
+            double[] female = new double[m], male = new double[m], gap = new double[m];
+            new EnrollmentEvaluator(simulator.model.spec, simulator.model.historicalData)
+                    .evaluateBatch(params.values, 1, simulator.currentYear, m, female, male, gap);
+            for (int y = 0; y < m; y++) assertEquals(gap[y], reloaded.get(y).gap, 1e-9);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}